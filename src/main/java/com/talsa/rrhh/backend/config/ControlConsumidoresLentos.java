@@ -0,0 +1,170 @@
+package com.talsa.rrhh.backend.config;
+
+import com.talsa.rrhh.backend.dto.BacklogSesionWebSocketDTO;
+import com.talsa.rrhh.backend.enums.PoliticaConsumidorLento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vigila el atraso de cada sesión WebSocket (TV en Wi-Fi inestable) para que un consumidor lento
+ * no retenga memoria ni degrade al resto.
+ * <p>
+ * - Mide por sesión: mensajes que el broker ya entregó pero que aún no se escribieron en el socket,
+ *   y cuánto lleva bloqueado el envío actual.
+ * - Política TERMINAR: se deja actuar a los límites de Spring (tiempo de envío / buffer): la sesión se cierra
+ *   y la pantalla reconecta y se resincroniza con /api/tickets/cola/snapshot.
+ * - Política DESCARTAR: mientras la sesión tenga más de {@code max-mensajes-pendientes} se descartan
+ *   los mensajes de datos (nunca CONNECTED ni heartbeats); la pantalla detecta el salto de secuencia.
+ */
+@Component
+public class ControlConsumidoresLentos implements WebSocketHandlerDecoratorFactory, ExecutorChannelInterceptor {
+
+    private final PoliticaConsumidorLento politica;
+    private final long maxMensajesPendientes;
+
+    private final Map<String, EstadoSesion> sesiones = new ConcurrentHashMap<>();
+    private final AtomicLong mensajesDescartados = new AtomicLong();
+    private final AtomicLong sesionesTerminadas = new AtomicLong();
+
+    public ControlConsumidoresLentos(
+            @Value("${websocket.consumidor-lento.politica:TERMINAR}") PoliticaConsumidorLento politica,
+            @Value("${websocket.consumidor-lento.max-mensajes-pendientes:200}") long maxMensajesPendientes) {
+        this.politica = politica;
+        this.maxMensajesPendientes = maxMensajesPendientes;
+    }
+
+    // ==========================================
+    // 1. LADO SOCKET: envuelve cada sesión para medir lo que realmente se escribe
+    // ==========================================
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                EstadoSesion estado = new EstadoSesion();
+                sesiones.put(session.getId(), estado);
+                super.afterConnectionEstablished(new SesionMedida(session, estado));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sesiones.remove(session.getId());
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    sesionesTerminadas.incrementAndGet(); // Spring la cerró por exceder tiempo o buffer
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private static class SesionMedida extends WebSocketSessionDecorator {
+
+        private final EstadoSesion estado;
+
+        SesionMedida(WebSocketSession session, EstadoSesion estado) {
+            super(session);
+            this.estado = estado;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            estado.inicioEnvio = System.currentTimeMillis();
+            try {
+                super.sendMessage(message);
+            } finally {
+                estado.inicioEnvio = 0;
+                estado.enviados.incrementAndGet();
+            }
+        }
+    }
+
+    // ==========================================
+    // 2. LADO BROKER: canal de salida (se registra en WebSocketConfig)
+    // ==========================================
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String sesionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        EstadoSesion estado = sesionId == null ? null : sesiones.get(sesionId);
+        if (estado == null) {
+            return message;
+        }
+
+        boolean esDato = SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE;
+        if (esDato && politica == PoliticaConsumidorLento.DESCARTAR && estado.pendientes() >= maxMensajesPendientes) {
+            estado.descartados.incrementAndGet();
+            mensajesDescartados.incrementAndGet();
+            return null; // No se entrega a esta sesión
+        }
+
+        estado.recibidos.incrementAndGet();
+        return message;
+    }
+
+    // ==========================================
+    // 3. MÉTRICAS
+    // ==========================================
+
+    public PoliticaConsumidorLento getPolitica() {
+        return politica;
+    }
+
+    public long getMensajesDescartados() {
+        return mensajesDescartados.get();
+    }
+
+    public long getSesionesTerminadas() {
+        return sesionesTerminadas.get();
+    }
+
+    // Ordenadas de más atrasada a menos
+    public List<BacklogSesionWebSocketDTO> obtenerBacklogPorSesion() {
+        long ahora = System.currentTimeMillis();
+        return sesiones.entrySet().stream()
+                .map(e -> {
+                    EstadoSesion s = e.getValue();
+                    long inicio = s.inicioEnvio;
+                    return new BacklogSesionWebSocketDTO(
+                            e.getKey(),
+                            s.pendientes(),
+                            inicio == 0 ? 0 : ahora - inicio,
+                            s.enviados.get(),
+                            s.descartados.get());
+                })
+                .sorted(Comparator.comparingLong(BacklogSesionWebSocketDTO::getMensajesPendientes).reversed())
+                .toList();
+    }
+
+    private static class EstadoSesion {
+        final AtomicLong recibidos = new AtomicLong();
+        final AtomicLong enviados = new AtomicLong();
+        final AtomicLong descartados = new AtomicLong();
+        volatile long inicioEnvio; // 0 = no hay envío en curso
+
+        long pendientes() {
+            // Algunos frames (ej. ERROR) se escriben sin pasar por el canal: nunca negativo
+            return Math.max(0, recibidos.get() - enviados.get());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.talsa.rrhh.backend.config;
 import com.talsa.rrhh.backend.entity.Usuario;
 import com.talsa.rrhh.backend.enums.Rol;
 import com.talsa.rrhh.backend.repository.UsuarioRepository;
+import com.talsa.rrhh.backend.service.DirectorioUsuarios;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,6 +15,7 @@ public class DataInitializer implements CommandLineRunner {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DirectorioUsuarios directorioUsuarios;
 
     @Override
     public void run(String... args) throws Exception {
@@ -47,6 +49,7 @@ public class DataInitializer implements CommandLineRunner {
                     .rol(rol)
                     .build();
             usuarioRepository.save(nuevo);
+            directorioUsuarios.invalidar(username); // Por si el DNI estaba cacheado como inexistente
             System.out.println("Usuario creado: " + username + " (" + rol + ")");
         }
     }
@@ -0,0 +1,108 @@
+package com.talsa.rrhh.backend.config;
+
+import com.talsa.rrhh.backend.dto.EstadisticasWebSocketDTO;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas del fanout STOMP:
+ * - bytes por broadcast (payload serializado UNA vez en EventosColaService),
+ * - bytes realmente entregados a las sesiones (payload x suscriptores, medido en el canal de salida),
+ * - suscriptores por tópico,
+ * - resumen de consumidores lentos (detalle por sesión en {@link ControlConsumidoresLentos}).
+ */
+@Component
+public class MetricasWebSocket implements ExecutorChannelInterceptor {
+
+    private final ControlConsumidoresLentos controlConsumidoresLentos;
+
+    private final AtomicLong broadcasts = new AtomicLong();
+    private final AtomicLong bytesSerializados = new AtomicLong();
+    private final AtomicLong bytesUltimoBroadcast = new AtomicLong();
+    private final AtomicLong mensajesEntregados = new AtomicLong();
+    private final AtomicLong bytesEntregados = new AtomicLong();
+
+    // sessionId -> (subscriptionId -> destino)
+    private final Map<String, Map<String, String>> suscripciones = new ConcurrentHashMap<>();
+
+    public MetricasWebSocket(ControlConsumidoresLentos controlConsumidoresLentos) {
+        this.controlConsumidoresLentos = controlConsumidoresLentos;
+    }
+
+    public void registrarBroadcast(int bytes) {
+        broadcasts.incrementAndGet();
+        bytesSerializados.addAndGet(bytes);
+        bytesUltimoBroadcast.set(bytes);
+    }
+
+    // Canal de salida (broker -> cada sesión): se registra en WebSocketConfig después de
+    // ControlConsumidoresLentos, así no se cuentan los mensajes descartados
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                && message.getPayload() instanceof byte[] payload) {
+            mensajesEntregados.incrementAndGet();
+            bytesEntregados.addAndGet(payload.length);
+        }
+        return message;
+    }
+
+    @EventListener
+    public void alSuscribirse(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null || accessor.getDestination() == null) {
+            return;
+        }
+        suscripciones.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), accessor.getDestination());
+    }
+
+    @EventListener
+    public void alDesuscribirse(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> deSesion = accessor.getSessionId() == null ? null : suscripciones.get(accessor.getSessionId());
+        if (deSesion != null && accessor.getSubscriptionId() != null) {
+            deSesion.remove(accessor.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public void alDesconectarse(SessionDisconnectEvent event) {
+        suscripciones.remove(event.getSessionId());
+    }
+
+    public EstadisticasWebSocketDTO obtenerEstadisticas() {
+        Map<String, Integer> porTopico = new TreeMap<>();
+        suscripciones.values().forEach(deSesion ->
+                deSesion.values().forEach(destino -> porTopico.merge(destino, 1, Integer::sum)));
+
+        long totalBroadcasts = broadcasts.get();
+        return new EstadisticasWebSocketDTO(
+                suscripciones.size(),
+                porTopico,
+                totalBroadcasts,
+                bytesUltimoBroadcast.get(),
+                totalBroadcasts == 0 ? 0 : bytesSerializados.get() / totalBroadcasts,
+                bytesSerializados.get(),
+                mensajesEntregados.get(),
+                bytesEntregados.get(),
+                controlConsumidoresLentos.getPolitica(),
+                controlConsumidoresLentos.getMensajesDescartados(),
+                controlConsumidoresLentos.getSesionesTerminadas()
+        );
+    }
+}
@@ -1,19 +1,69 @@
 package com.talsa.rrhh.backend.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final MetricasWebSocket metricasWebSocket;
+    private final ControlConsumidoresLentos controlConsumidoresLentos;
+
+    // Heartbeats (ms): el servidor avisa que sigue vivo y espera lo mismo del cliente
+    @Value("${websocket.heartbeat.servidor:10000}")
+    private long heartbeatServidor;
+
+    @Value("${websocket.heartbeat.cliente:10000}")
+    private long heartbeatCliente;
+
+    // Límites por sesión: una TV lenta no puede retener más que esto
+    @Value("${websocket.sesion.tiempo-envio-max:10s}")
+    private Duration tiempoEnvioMax;
+
+    @Value("${websocket.sesion.buffer-envio-max:262144}")
+    private int bufferEnvioMax;
+
+    @Value("${websocket.sesion.mensaje-entrada-max:65536}")
+    private int mensajeEntradaMax;
+
+    // Hilos de los canales STOMP (entrada: clientes -> servidor; salida: broker -> clientes)
+    @Value("${websocket.canal-entrada.hilos:4}")
+    private int hilosCanalEntrada;
+
+    @Value("${websocket.canal-salida.hilos:8}")
+    private int hilosCanalSalida;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    public WebSocketConfig(MetricasWebSocket metricasWebSocket, ControlConsumidoresLentos controlConsumidoresLentos) {
+        this.metricasWebSocket = metricasWebSocket;
+        this.controlConsumidoresLentos = controlConsumidoresLentos;
+    }
+
+    // Scheduler que Spring ya crea para el broker (@Lazy evita el ciclo de configuración)
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Prefijo para los mensajes que salen del servidor hacia el cliente (TV)
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[]{heartbeatServidor, heartbeatCliente})
+                .setTaskScheduler(messageBrokerTaskScheduler);
 
         // Prefijo para mensajes que vienen del cliente (si fuera necesario a futuro)
         config.setApplicationDestinationPrefixes("/app");
@@ -26,4 +76,31 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*") // Permite conexión desde cualquier lado (Tablet/TV)
                 .withSockJS(); // Habilita compatibilidad si el navegador es viejo
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Al superar el tiempo o el buffer, Spring cierra la sesión (la TV reconecta y pide /cola/snapshot)
+        registration.setSendTimeLimit((int) tiempoEnvioMax.toMillis())
+                .setSendBufferSizeLimit(bufferEnvioMax)
+                .setMessageSizeLimit(mensajeEntradaMax)
+                .addDecoratorFactory(controlConsumidoresLentos);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(hilosCanalEntrada)
+                .maxPoolSize(hilosCanalEntrada);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(hilosCanalSalida)
+                .maxPoolSize(hilosCanalSalida);
+
+        // Los broadcasts llegan ya serializados (byte[]) desde EventosColaService: el broker reparte
+        // el MISMO payload a cada sesión. Aquí medimos lo que sale y aplicamos la política de consumidores lentos.
+        registration.interceptors(controlConsumidoresLentos, metricasWebSocket);
+    }
 }
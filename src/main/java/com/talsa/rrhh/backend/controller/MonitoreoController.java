@@ -0,0 +1,80 @@
+package com.talsa.rrhh.backend.controller;
+
+import com.talsa.rrhh.backend.config.ControlConsumidoresLentos;
+import com.talsa.rrhh.backend.config.MetricasWebSocket;
+import com.talsa.rrhh.backend.dto.BacklogSesionWebSocketDTO;
+import com.talsa.rrhh.backend.dto.EstadisticasCacheDTO;
+import com.talsa.rrhh.backend.dto.EstadisticasLoginDTO;
+import com.talsa.rrhh.backend.dto.EstadisticasWebSocketDTO;
+import com.talsa.rrhh.backend.security.JwtUtil;
+import com.talsa.rrhh.backend.security.LimitadorIntentosLogin;
+import com.talsa.rrhh.backend.security.VigenciaUsuarios;
+import com.talsa.rrhh.backend.service.DirectorioUsuarios;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/monitoreo")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAuthority('ADMIN_TI')")
+public class MonitoreoController {
+
+    private final DirectorioUsuarios directorioUsuarios;
+    private final MetricasWebSocket metricasWebSocket;
+    private final ControlConsumidoresLentos controlConsumidoresLentos;
+    private final JwtUtil jwtUtil;
+    private final VigenciaUsuarios vigenciaUsuarios;
+    private final LimitadorIntentosLogin limitadorIntentosLogin;
+
+    // ==========================================
+    // 1. CACHÉS (USUARIOS Y TOKENS)
+    // ==========================================
+
+    @GetMapping("/cache-usuarios")
+    public ResponseEntity<EstadisticasCacheDTO> estadisticasCacheUsuarios() {
+        return ResponseEntity.ok(directorioUsuarios.obtenerEstadisticas());
+    }
+
+    // Útil si alguien modifica usuarios directamente en la BD
+    @PostMapping("/cache-usuarios/invalidar")
+    public ResponseEntity<Void> invalidarCacheUsuarios() {
+        directorioUsuarios.invalidarTodo();
+        vigenciaUsuarios.refrescar(); // Roles vigentes para la autenticación sin BD
+        return ResponseEntity.noContent().build();
+    }
+
+    // Tokens JWT ya verificados (se evita re-verificar la firma en cada request)
+    @GetMapping("/cache-tokens")
+    public ResponseEntity<EstadisticasCacheDTO> estadisticasCacheTokens() {
+        return ResponseEntity.ok(jwtUtil.obtenerEstadisticasCache());
+    }
+
+    // ==========================================
+    // 2. WEBSOCKET (FANOUT A PANTALLAS)
+    // ==========================================
+
+    @GetMapping("/websocket")
+    public ResponseEntity<EstadisticasWebSocketDTO> estadisticasWebSocket() {
+        return ResponseEntity.ok(metricasWebSocket.obtenerEstadisticas());
+    }
+
+    // Atraso por sesión (las más atrasadas primero)
+    @GetMapping("/websocket/sesiones")
+    public ResponseEntity<List<BacklogSesionWebSocketDTO>> backlogSesionesWebSocket() {
+        return ResponseEntity.ok(controlConsumidoresLentos.obtenerBacklogPorSesion());
+    }
+
+    // ==========================================
+    // 3. LOGIN (FUERZA BRUTA)
+    // ==========================================
+
+    @GetMapping("/login")
+    public ResponseEntity<EstadisticasLoginDTO> estadisticasLogin() {
+        return ResponseEntity.ok(limitadorIntentosLogin.obtenerEstadisticas());
+    }
+}
@@ -2,24 +2,34 @@ package com.talsa.rrhh.backend.controller;
 
 import com.talsa.rrhh.backend.dto.*;
 import com.talsa.rrhh.backend.enums.*;
+import com.talsa.rrhh.backend.repository.FiltroTickets;
+import com.talsa.rrhh.backend.service.ExportacionService;
+import com.talsa.rrhh.backend.service.ImportacionService;
 import com.talsa.rrhh.backend.service.TicketService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.security.Principal;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +40,11 @@ import java.util.Map;
 public class TicketController {
 
     private final TicketService ticketService;
+    private final ImportacionService importacionService;
+    private final ExportacionService exportacionService;
+
+    @Value("${importacion.tamano-maximo:50MB}")
+    private DataSize tamanoMaximoImportacion;
 
     // ==========================================
     // 1. REGISTRO (TABLET)
@@ -45,16 +60,29 @@ public class TicketController {
     // 2. LISTAS OPERATIVAS (PANTALLAS / WEB)
     // ==========================================
 
+    // Sin 'lugar': todas las oficinas (supervisores). Con 'lugar': solo esa oficina
     @GetMapping("/pendientes")
-    public ResponseEntity<List<TicketResponseDTO>> listarPendientes() {
+    public ResponseEntity<List<TicketResponseDTO>> listarPendientes(@RequestParam(required = false) LugarAtencion lugar) {
+        if (lugar != null) {
+            return ResponseEntity.ok(ticketService.listarTicketsPendientes(lugar));
+        }
         return ResponseEntity.ok(ticketService.listarTicketsPendientes());
     }
 
     @GetMapping("/en-atencion")
-    public ResponseEntity<List<TicketResponseDTO>> listarEnAtencion() {
+    public ResponseEntity<List<TicketResponseDTO>> listarEnAtencion(@RequestParam(required = false) LugarAtencion lugar) {
+        if (lugar != null) {
+            return ResponseEntity.ok(ticketService.listarTicketsEnAtencion(lugar));
+        }
         return ResponseEntity.ok(ticketService.listarTicketsEnAtencion());
     }
 
+    // Resincronización del flujo de eventos (/topic/cola/eventos)
+    @GetMapping("/cola/snapshot")
+    public ResponseEntity<SnapshotColaDTO> obtenerSnapshotCola() {
+        return ResponseEntity.ok(ticketService.obtenerSnapshotCola());
+    }
+
     // ==========================================
     // 3. GESTIÓN DE ATENCIÓN (RRHH)
     // ==========================================
@@ -102,8 +130,12 @@ public class TicketController {
     public ResponseEntity<PaginaResponseDTO<TicketResponseDTO>> obtenerHistorialUsuario(
             @PathVariable String dni,
             @RequestParam(defaultValue = "false") boolean todo,
+            @RequestParam(defaultValue = "EXACTO") ModoConteo conteo,
             @PageableDefault(page = 0, size = 10, sort = "fechaCreacion", direction = Sort.Direction.DESC) Pageable pageable
     ) {
+        if (!todo && conteo != ModoConteo.EXACTO) {
+            return ResponseEntity.ok(ticketService.listarSinConteoExacto(FiltroTickets.porDni(dni), pageable, conteo));
+        }
         Pageable paginacionFinal = todo ? Pageable.unpaged() : pageable;
         Page<TicketResponseDTO> paginaSpring = ticketService.obtenerHistorialPaginado(dni, paginacionFinal);
 
@@ -111,18 +143,49 @@ public class TicketController {
         return ResponseEntity.ok(new PaginaResponseDTO<>(paginaSpring));
     }
 
+    // Variante por cursor (?cursor= para la primera página, luego el siguienteCursor recibido): sin COUNT
+    @GetMapping(value = "/historial/{dni}", params = "cursor")
+    public ResponseEntity<PaginaCursorDTO<TicketResponseDTO>> obtenerHistorialUsuarioPorCursor(
+            @PathVariable String dni,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(ticketService.listarPorCursor(FiltroTickets.porDni(dni), cursor, size));
+    }
+
+    // Variante streaming (Accept: application/x-ndjson): todo el historial, una línea JSON por ticket
+    @GetMapping(value = "/historial/{dni}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void obtenerHistorialUsuarioNdjson(@PathVariable String dni, HttpServletResponse response) throws IOException {
+        transmitirNdjson(FiltroTickets.porDni(dni), response);
+    }
+
     // Historial General (Para el Jefe)
     @GetMapping("/historial-general")
     public ResponseEntity<PaginaResponseDTO<TicketResponseDTO>> obtenerHistorialGeneral(
             @RequestParam(defaultValue = "false") boolean todo,
+            @RequestParam(defaultValue = "EXACTO") ModoConteo conteo,
             @PageableDefault(page = 0, size = 20, sort = "fechaCreacion", direction = Sort.Direction.DESC) Pageable pageable
     ) {
+        if (!todo && conteo != ModoConteo.EXACTO) {
+            return ResponseEntity.ok(ticketService.listarSinConteoExacto(new FiltroTickets(null, null, null, null, null), pageable, conteo));
+        }
         Pageable paginacionFinal = todo ? Pageable.unpaged() : pageable;
         Page<TicketResponseDTO> paginaSpring = ticketService.obtenerTodosLosTickets(paginacionFinal);
 
         return ResponseEntity.ok(new PaginaResponseDTO<>(paginaSpring));
     }
 
+    @GetMapping(value = "/historial-general", params = "cursor")
+    public ResponseEntity<PaginaCursorDTO<TicketResponseDTO>> obtenerHistorialGeneralPorCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ticketService.listarPorCursor(new FiltroTickets(null, null, null, null, null), cursor, size));
+    }
+
+    @GetMapping(value = "/historial-general", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void obtenerHistorialGeneralNdjson(HttpServletResponse response) throws IOException {
+        transmitirNdjson(new FiltroTickets(null, null, null, null, null), response);
+    }
+
     // Buscador Maestro (Filtros dinámicos)
     @GetMapping("/buscar")
     public ResponseEntity<PaginaResponseDTO<TicketResponseDTO>> buscarTickets(@RequestParam(required = false) String dni,
@@ -131,7 +194,13 @@ public class TicketController {
                                                                               @RequestParam(required = false) LocalDate fechaDesde,
                                                                               @RequestParam(required = false) LocalDate fechaHasta,
                                                                               @RequestParam(defaultValue = "false") boolean todo,
+                                                                              @RequestParam(defaultValue = "EXACTO") ModoConteo conteo,
                                                                               @PageableDefault(page = 0, size = 20, sort = "fechaCreacion", direction = Sort.Direction.DESC) Pageable pageable) {
+        // Sin COUNT exacto por página (?conteo=ESTIMADO o NINGUNO)
+        if (!todo && conteo != ModoConteo.EXACTO) {
+            return ResponseEntity.ok(ticketService.listarSinConteoExacto(
+                    filtroDeBusqueda(dni, estado, categoria, fechaDesde, fechaHasta), pageable, conteo));
+        }
         // Lógica: Si 'todo' es true, usamos un paginador "infinito". Si no, usamos el normal.
         Pageable paginacionFinal = todo ? Pageable.unpaged() : pageable;
 
@@ -144,6 +213,74 @@ public class TicketController {
         return ResponseEntity.ok(new PaginaResponseDTO<>(paginaSpring));
     }
 
+    @GetMapping(value = "/buscar", params = "cursor")
+    public ResponseEntity<PaginaCursorDTO<TicketResponseDTO>> buscarTicketsPorCursor(@RequestParam(required = false) String dni,
+                                                                                     @RequestParam(required = false) EstadoTicket estado,
+                                                                                     @RequestParam(required = false) CategoriaAtencion categoria,
+                                                                                     @RequestParam(required = false) LocalDate fechaDesde,
+                                                                                     @RequestParam(required = false) LocalDate fechaHasta,
+                                                                                     @RequestParam String cursor,
+                                                                                     @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ticketService.listarPorCursor(
+                filtroDeBusqueda(dni, estado, categoria, fechaDesde, fechaHasta), cursor, size));
+    }
+
+    @GetMapping(value = "/buscar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void buscarTicketsNdjson(@RequestParam(required = false) String dni,
+                                    @RequestParam(required = false) EstadoTicket estado,
+                                    @RequestParam(required = false) CategoriaAtencion categoria,
+                                    @RequestParam(required = false) LocalDate fechaDesde,
+                                    @RequestParam(required = false) LocalDate fechaHasta,
+                                    HttpServletResponse response) throws IOException {
+        transmitirNdjson(filtroDeBusqueda(dni, estado, categoria, fechaDesde, fechaHasta), response);
+    }
+
+    // Exportar a Excel/CSV (reporte mensual): mismos filtros que /buscar, las filas se escriben en streaming
+    @GetMapping("/exportar")
+    @PreAuthorize("hasAnyAuthority('PERSONAL_RRHH', 'JEFE_RRHH', 'ADMIN_TI')")
+    public void exportarTickets(@RequestParam(required = false) String dni,
+                                @RequestParam(required = false) EstadoTicket estado,
+                                @RequestParam(required = false) CategoriaAtencion categoria,
+                                @RequestParam(required = false) LocalDate fechaDesde,
+                                @RequestParam(required = false) LocalDate fechaHasta,
+                                @RequestParam(defaultValue = "xlsx") String formato,
+                                HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        if (!csv && !"xlsx".equalsIgnoreCase(formato)) {
+            throw new IllegalArgumentException("Formato no soportado: " + formato + " (use xlsx o csv)");
+        }
+
+        FiltroTickets filtro = filtroDeBusqueda(dni, estado, categoria, fechaDesde, fechaHasta);
+
+        String nombreArchivo = "tickets_" + LocalDate.now() + (csv ? ".csv" : ".xlsx");
+        response.setContentType(csv
+                ? "text/csv; charset=UTF-8"
+                : "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(nombreArchivo).build().toString());
+
+        if (csv) {
+            exportacionService.exportarCsv(filtro, response.getOutputStream());
+        } else {
+            exportacionService.exportarXlsx(filtro, response.getOutputStream());
+        }
+    }
+
+    // Convertir LocalDate a LocalDateTime para cubrir todo el día (00:00 a 23:59)
+    private static FiltroTickets filtroDeBusqueda(String dni, EstadoTicket estado, CategoriaAtencion categoria,
+                                                  LocalDate fechaDesde, LocalDate fechaHasta) {
+        return new FiltroTickets(dni, estado, categoria,
+                fechaDesde != null ? fechaDesde.atStartOfDay() : null,
+                fechaHasta != null ? fechaHasta.atTime(LocalTime.MAX) : null);
+    }
+
+    // Las filas se leen con cursor y se escriben a medida que llegan (más recientes primero)
+    private void transmitirNdjson(FiltroTickets filtro, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        exportacionService.exportarNdjson(filtro, response.getOutputStream());
+    }
+
     // Reporte de conteo simple (KPIs)
     @GetMapping("/reporte/resumen/{dni}")
     public ResponseEntity<List<ResumenAtencionDTO>> obtenerResumenAtencion(@PathVariable String dni) {
@@ -151,32 +288,41 @@ public class TicketController {
     }
 
     // ==========================================
-    // 5. CARGA MASIVA (EXCEL)
+    // 5. CARGA MASIVA (EXCEL O CSV)
     // ==========================================
 
+    // La carga se encola y se procesa en segundo plano: responde 202 con el id del trabajo
     @PostMapping("/importar")
     @PreAuthorize("hasAnyAuthority('PERSONAL_RRHH', 'JEFE_RRHH', 'ADMIN_TI')")
-    public ResponseEntity<String> importarTickets(@RequestParam("file") MultipartFile file,
-                                                  @RequestParam("lugarAtencion") LugarAtencion lugarAtencion,
-                                                  @RequestParam("categoria") CategoriaAtencion categoria,
-                                                  Principal principal) {
-        // Validar tamaño del archivo (máximo 5MB)
-        if (file.getSize() > 5 * 1024 * 1024) {
-            return ResponseEntity.badRequest().body("El archivo no puede superar los 5MB");
+    public ResponseEntity<?> importarTickets(@RequestParam("file") MultipartFile file,
+                                             @RequestParam("lugarAtencion") LugarAtencion lugarAtencion,
+                                             @RequestParam("categoria") CategoriaAtencion categoria,
+                                             Principal principal) {
+        // Validar tamaño del archivo (configurable: la lectura es streaming)
+        if (file.getSize() > tamanoMaximoImportacion.toBytes()) {
+            return ResponseEntity.badRequest()
+                    .body("El archivo no puede superar los " + tamanoMaximoImportacion.toMegabytes() + "MB");
         }
 
         try {
-            String resultado = ticketService.importarTicketsMasivos(file, lugarAtencion, categoria, principal.getName());
-            return ResponseEntity.ok(resultado);
+            TrabajoImportacionDTO trabajo = importacionService.enviar(file, lugarAtencion, categoria, principal.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(trabajo);
 
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al procesar el archivo Excel: " + e.getMessage());
+                    .body("Error al recibir el archivo: " + e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Progreso, contadores y errores por fila de una carga masiva
+    @GetMapping("/importar/{jobId}")
+    @PreAuthorize("hasAnyAuthority('PERSONAL_RRHH', 'JEFE_RRHH', 'ADMIN_TI')")
+    public ResponseEntity<TrabajoImportacionDTO> consultarImportacion(@PathVariable String jobId) {
+        return ResponseEntity.ok(importacionService.consultar(jobId));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('PERSONAL_RRHH', 'JEFE_RRHH', 'ADMIN_TI')")
     public ResponseEntity<TicketResponseDTO> editarTicket(@PathVariable Long id, @Valid @RequestBody TicketEdicionDTO dto) {
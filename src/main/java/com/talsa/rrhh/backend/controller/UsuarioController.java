@@ -2,7 +2,7 @@ package com.talsa.rrhh.backend.controller;
 
 import com.talsa.rrhh.backend.dto.UsuarioInfoDTO;
 import com.talsa.rrhh.backend.entity.Usuario;
-import com.talsa.rrhh.backend.repository.UsuarioRepository;
+import com.talsa.rrhh.backend.service.DirectorioUsuarios;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,11 +14,11 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class UsuarioController {
 
-    private final UsuarioRepository usuarioRepository;
+    private final DirectorioUsuarios directorioUsuarios;
 
     @GetMapping("/info/{dni}")
     public ResponseEntity<UsuarioInfoDTO> obtenerInfoUsuario(@PathVariable String dni) {
-        Usuario usuario = usuarioRepository.findByUsername(dni)
+        Usuario usuario = directorioUsuarios.buscarPorUsername(dni)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado"));
 
         return ResponseEntity.ok(new UsuarioInfoDTO(usuario.getNombre(), usuario.getApellidos()));
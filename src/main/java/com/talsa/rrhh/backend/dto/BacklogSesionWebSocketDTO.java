@@ -0,0 +1,14 @@
+package com.talsa.rrhh.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BacklogSesionWebSocketDTO {
+    private String sesionId;
+    private long mensajesPendientes;   // Entregados por el broker y aún no escritos en el socket
+    private long msEnvioEnCurso;       // Cuánto lleva bloqueado el envío actual (0 = libre)
+    private long mensajesEnviados;
+    private long mensajesDescartados;
+}
@@ -0,0 +1,12 @@
+package com.talsa.rrhh.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ErrorFilaImportacionDTO {
+    private int fila;          // Número de fila en el Excel (1 = primera después de la cabecera)
+    private String dni;
+    private String motivo;
+}
@@ -0,0 +1,14 @@
+package com.talsa.rrhh.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+    private long aciertos;
+    private long fallos;
+    private double tasaAciertos;   // 0.0 - 1.0
+    private long desalojos;        // Por tamaño o TTL
+    private long tamanoActual;     // Estimado
+}
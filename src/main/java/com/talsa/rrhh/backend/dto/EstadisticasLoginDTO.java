@@ -0,0 +1,13 @@
+package com.talsa.rrhh.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EstadisticasLoginDTO {
+    private long loginsExitosos;
+    private long intentosRechazados;   // Credenciales incorrectas (sí se ejecutó BCrypt)
+    private long intentosBloqueados;   // Cortados por el limitador (sin BCrypt)
+    private long clavesVigiladas;      // Usuarios + IPs con fallos en la ventana actual (estimado)
+}
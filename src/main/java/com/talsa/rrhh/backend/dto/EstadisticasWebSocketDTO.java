@@ -0,0 +1,29 @@
+package com.talsa.rrhh.backend.dto;
+
+import com.talsa.rrhh.backend.enums.PoliticaConsumidorLento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class EstadisticasWebSocketDTO {
+    private int sesionesConectadas;
+    private Map<String, Integer> suscriptoresPorTopico;
+
+    // Lado servidor: cada broadcast se serializa UNA sola vez
+    private long broadcasts;
+    private long bytesUltimoBroadcast;
+    private long bytesPromedioBroadcast;
+    private long bytesSerializados;
+
+    // Fanout: lo que realmente salió hacia las sesiones (payload x suscriptores)
+    private long mensajesEntregados;
+    private long bytesEntregados;
+
+    // Consumidores lentos
+    private PoliticaConsumidorLento politicaConsumidorLento;
+    private long mensajesDescartados;
+    private long sesionesTerminadasPorLentitud;
+}
@@ -0,0 +1,16 @@
+package com.talsa.rrhh.backend.dto;
+
+import com.talsa.rrhh.backend.enums.TipoEventoCola;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class EventoColaDTO {
+    private long secuencia;            // Monótona creciente: si el cliente ve un salto, pide /cola/snapshot
+    private TipoEventoCola tipo;
+    private TicketResponseDTO ticket;  // Estado completo del ticket: aplicar el evento es idempotente
+    private LocalDateTime fecha;
+}
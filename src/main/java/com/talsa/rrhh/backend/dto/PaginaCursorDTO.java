@@ -0,0 +1,16 @@
+package com.talsa.rrhh.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Página por cursor: sin totales (no hay COUNT). siguienteCursor = null cuando no hay más
+@Data
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+
+    private List<T> contenido;
+    private int itemsPorPagina;
+    private String siguienteCursor;
+}
@@ -2,6 +2,7 @@ package com.talsa.rrhh.backend.dto;
 
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -11,8 +12,10 @@ public class PaginaResponseDTO<T> {
     private List<T> contenido;       // La lista de tickets
     private int paginaActual;        // 0, 1, 2...
     private int itemsPorPagina;      // 10, 20...
-    private long totalElementos;     // Total real en BD (ej. 500)
-    private int totalPaginas;        // Total de páginas calculadas
+    private Long totalElementos;     // Total real en BD (ej. 500); null con conteo=NINGUNO
+    private Integer totalPaginas;    // Total de páginas calculadas; null con conteo=NINGUNO
+    private boolean totalEstimado;   // true si los totales son aproximados (conteo=ESTIMADO)
+    private boolean hayMas;          // Hay página siguiente (siempre exacto)
 
     // Constructor inteligente que extrae solo lo útil de Spring Page
     public PaginaResponseDTO(Page<T> page) {
@@ -21,5 +24,25 @@ public class PaginaResponseDTO<T> {
         this.itemsPorPagina = page.getSize();
         this.totalElementos = page.getTotalElements();
         this.totalPaginas = page.getTotalPages();
+        this.hayMas = page.hasNext();
+    }
+
+    // Sin total (Slice): solo se sabe si hay página siguiente
+    public PaginaResponseDTO(Slice<T> slice) {
+        this.contenido = slice.getContent();
+        this.paginaActual = slice.getNumber();
+        this.itemsPorPagina = slice.getSize();
+        this.hayMas = slice.hasNext();
+    }
+
+    // Slice + total aproximado. Si es la última página (con filas) el total se conoce exacto; si hay más, al menos una fila más
+    public PaginaResponseDTO(Slice<T> slice, long totalAproximado) {
+        this(slice);
+        long vistos = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        boolean exacto = !slice.hasNext() && (slice.hasContent() || slice.isFirst());
+        long total = exacto ? vistos : slice.hasNext() ? Math.max(totalAproximado, vistos + 1) : totalAproximado;
+        this.totalElementos = total;
+        this.totalPaginas = (int) ((total + slice.getSize() - 1) / slice.getSize());
+        this.totalEstimado = !exacto;
     }
 }
@@ -0,0 +1,14 @@
+package com.talsa.rrhh.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SnapshotColaDTO {
+    private long secuencia;                     // Aplicar solo eventos con secuencia mayor a esta
+    private List<TicketResponseDTO> pendientes; // PENDIENTE + AUSENTE (mismo orden que /topic/pendientes)
+    private List<TicketResponseDTO> enAtencion;
+}
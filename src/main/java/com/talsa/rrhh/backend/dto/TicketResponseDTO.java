@@ -1,6 +1,8 @@
 package com.talsa.rrhh.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.talsa.rrhh.backend.enums.*;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,6 +10,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class TicketResponseDTO {
 
     private Long id;
@@ -25,4 +28,39 @@ public class TicketResponseDTO {
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaInicioAtencion;
     private LocalDateTime fechaFinAtencion;
+
+    // Versión del ticket en la BD (ColaEnVivo descarta cambios más viejos). No se expone en el JSON
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Constructor para proyecciones JPQL (SELECT new ...) de TicketRepository.
+     * Recibe nombre y apellidos por separado (solicitante y atendedor vienen de LEFT JOIN, pueden ser null)
+     * y los formatea igual que TicketService.convertirADTO.
+     */
+    public TicketResponseDTO(Long id, String dniSolicitante, LugarAtencion lugarAtencion,
+                             CategoriaAtencion categoria, SubCategoriaQueja subCategoria,
+                             String observacion, EstadoTicket estado,
+                             String nombreSolicitante, String apellidosSolicitante,
+                             String nombreAtencion, String apellidosAtencion,
+                             LocalDateTime fechaCreacion, LocalDateTime fechaInicioAtencion,
+                             LocalDateTime fechaFinAtencion, Long version) {
+        this.id = id;
+        this.dniSolicitante = dniSolicitante;
+        this.lugarAtencion = lugarAtencion;
+        this.categoria = categoria;
+        this.subCategoria = subCategoria;
+        this.observacion = observacion;
+        this.estado = estado;
+        this.nombreSolicitante = (nombreSolicitante == null && apellidosSolicitante == null)
+                ? "DNI: " + dniSolicitante
+                : nombreSolicitante + " " + apellidosSolicitante;
+        this.trabajadorAtencion = (nombreAtencion == null && apellidosAtencion == null)
+                ? null
+                : nombreAtencion + " " + apellidosAtencion;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaInicioAtencion = fechaInicioAtencion;
+        this.fechaFinAtencion = fechaFinAtencion;
+        this.version = version;
+    }
 }
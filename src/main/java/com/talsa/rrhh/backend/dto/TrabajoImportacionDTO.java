@@ -0,0 +1,37 @@
+package com.talsa.rrhh.backend.dto;
+
+import com.talsa.rrhh.backend.enums.CategoriaAtencion;
+import com.talsa.rrhh.backend.enums.EstadoImportacion;
+import com.talsa.rrhh.backend.enums.LugarAtencion;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class TrabajoImportacionDTO {
+    private String id;
+    private EstadoImportacion estado;
+    private String archivo;
+    private LugarAtencion lugarAtencion;
+    private CategoriaAtencion categoria;
+    private String responsable;
+
+    // Progreso (el total de filas no se conoce hasta terminar: la lectura es streaming)
+    private int filasLeidas;
+    private int lotesConfirmados;
+    private int creados;
+    private int duplicados;
+    private int ignorados;
+
+    // Reporte por fila (DNI inválido / no encontrado / duplicado), acotado
+    private List<ErrorFilaImportacionDTO> errores;
+    private int erroresNoReportados;
+
+    private String mensaje;
+    private LocalDateTime fechaRecepcion;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+}
@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 @Table(name = "tickets")
 public class Ticket {
 
+    // Secuencia con bloques de 50 (ver V2__secuencia_tickets.sql): permite INSERTs en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_seq")
+    @SequenceGenerator(name = "tickets_seq", sequenceName = "tickets_seq", allocationSize = 50)
     private Long id;
 
     // --- Datos del Solicitante (Trabajador) ---
@@ -50,4 +52,9 @@ public class Ticket {
     private LocalDateTime fechaCreacion;       // Cuando el trabajador se registra
     private LocalDateTime fechaInicioAtencion; // Cuando RRHH llama al trabajador
     private LocalDateTime fechaFinAtencion;    // Cuando se cierra el caso
+
+    // --- Control de concurrencia ---
+    // Sube en cada UPDATE: dos escritorios no pisan el mismo ticket y la cola en memoria ordena los cambios
+    @Version
+    private Long version;
 }
@@ -0,0 +1,8 @@
+package com.talsa.rrhh.backend.enums;
+
+public enum EstadoImportacion {
+    EN_COLA,        // Esperando un hilo libre del ejecutor de importaciones
+    PROCESANDO,
+    COMPLETADO,
+    FALLIDO         // Error inesperado: los lotes ya confirmados se mantienen
+}
@@ -0,0 +1,8 @@
+package com.talsa.rrhh.backend.enums;
+
+// Cómo se calcula el total de un listado paginado (?conteo=...)
+public enum ModoConteo {
+    EXACTO,     // COUNT en cada página (comportamiento original)
+    ESTIMADO,   // Sin filtros: estadísticas del planner; con filtros: COUNT exacto cacheado unos segundos
+    NINGUNO     // Sin total: solo se sabe si hay página siguiente
+}
@@ -0,0 +1,6 @@
+package com.talsa.rrhh.backend.enums;
+
+public enum PoliticaConsumidorLento {
+    TERMINAR,   // Se cierra la sesión al exceder los límites: la pantalla reconecta y pide /cola/snapshot
+    DESCARTAR   // Se descartan mensajes mientras tenga atraso: la pantalla ve el salto de secuencia y se resincroniza
+}
@@ -0,0 +1,9 @@
+package com.talsa.rrhh.backend.enums;
+
+public enum TipoEventoCola {
+    AGREGADO,       // Nuevo ticket en la cola (PENDIENTE)
+    MOVIDO,         // Cambió de posición o de lista (edición de categoría, marcado AUSENTE)
+    LLAMADO,        // RRHH lo llamó (pasa a EN_ATENCION)
+    REMOVIDO,       // Sale de las pantallas (FINALIZADO o CANCELADO)
+    RESINCRONIZADO  // La reconciliación corrigió la cola desde la BD (ticket = null): pedir /cola/snapshot
+}
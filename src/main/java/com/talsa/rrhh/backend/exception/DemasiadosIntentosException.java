@@ -0,0 +1,17 @@
+package com.talsa.rrhh.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * Demasiados intentos fallidos de login para un usuario o una IP (se responde 429 sin ejecutar BCrypt).
+ */
+@Getter
+public class DemasiadosIntentosException extends RuntimeException {
+
+    private final long segundosParaReintentar;
+
+    public DemasiadosIntentosException(String message, long segundosParaReintentar) {
+        super(message);
+        this.segundosParaReintentar = segundosParaReintentar;
+    }
+}
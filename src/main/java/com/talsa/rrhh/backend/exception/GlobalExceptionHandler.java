@@ -1,8 +1,11 @@
 package com.talsa.rrhh.backend.exception;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -61,7 +64,42 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
-    // 5. ERROR GENERAL (Cualquier otra cosa no controlada)
+    // 4b. DOS USUARIOS MODIFICARON EL MISMO TICKET A LA VEZ (@Version de Ticket)
+    // Ejemplo: dos escritorios presionan "Llamar" sobre el mismo ticket.
+    // Retorna: 409 Conflict
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Conflicto de estado");
+        error.put("mensaje", "Otro usuario modificó este ticket al mismo tiempo. Actualice e intente nuevamente.");
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    // 5. DEMASIADOS INTENTOS DE LOGIN
+    // Ejemplo: 5 contraseñas erradas seguidas para el mismo DNI, o muchas desde la misma IP.
+    // Retorna: 429 Too Many Requests (+ cabecera Retry-After)
+    @ExceptionHandler(DemasiadosIntentosException.class)
+    public ResponseEntity<Map<String, String>> handleDemasiadosIntentos(DemasiadosIntentosException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Demasiados intentos");
+        error.put("mensaje", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getSegundosParaReintentar()))
+                .body(error);
+    }
+
+    // 5b. SIN PERMISO (@PreAuthorize)
+    // Ejemplo: un TRABAJADOR intenta exportar el historial o entrar al monitoreo.
+    // Retorna: 403 Forbidden (si no, caería en el error general como 500)
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Map<String, String>> handleAccessDenied(AccessDeniedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Acceso denegado");
+        error.put("mensaje", "No tiene permisos para esta operación");
+        return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
+    }
+
+    // 6. ERROR GENERAL (Cualquier otra cosa no controlada)
     // Retorna: 500 Internal Server Error
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGeneralException(Exception ex) {
@@ -0,0 +1,32 @@
+package com.talsa.rrhh.backend.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición en un listado ordenado por (fechaCreacion DESC, id DESC): el último ticket entregado.
+ * Viaja al cliente como texto opaco (Base64 URL); el cliente solo lo devuelve para pedir lo siguiente.
+ */
+public record CursorTickets(LocalDateTime fechaCreacion, Long id) {
+
+    public String aTexto() {
+        String crudo = fechaCreacion + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(crudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el texto no es un cursor emitido por el servidor
+     */
+    public static CursorTickets desdeTexto(String texto) {
+        try {
+            String crudo = new String(Base64.getUrlDecoder().decode(texto), StandardCharsets.UTF_8);
+            int separador = crudo.indexOf('|');
+            return new CursorTickets(LocalDateTime.parse(crudo.substring(0, separador)),
+                    Long.parseLong(crudo.substring(separador + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + texto);
+        }
+    }
+}
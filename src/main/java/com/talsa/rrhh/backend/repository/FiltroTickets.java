@@ -0,0 +1,29 @@
+package com.talsa.rrhh.backend.repository;
+
+import com.talsa.rrhh.backend.enums.CategoriaAtencion;
+import com.talsa.rrhh.backend.enums.EstadoTicket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros del buscador maestro (todos opcionales: null = sin filtrar por ese campo).
+ * <p>
+ * dniExacto: el DNI se compara tal cual, nunca como "contiene" (historial personal /historial/{dni}).
+ */
+public record FiltroTickets(String dni,
+                            EstadoTicket estado,
+                            CategoriaAtencion categoria,
+                            LocalDateTime fechaInicio,
+                            LocalDateTime fechaFin,
+                            boolean dniExacto) {
+
+    public FiltroTickets(String dni, EstadoTicket estado, CategoriaAtencion categoria,
+                         LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        this(dni, estado, categoria, fechaInicio, fechaFin, false);
+    }
+
+    // Historial de UNA persona: mismas filas que listarPorDniDTO
+    public static FiltroTickets porDni(String dni) {
+        return new FiltroTickets(dni, null, null, null, null, true);
+    }
+}
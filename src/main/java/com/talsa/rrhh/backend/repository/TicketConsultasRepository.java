@@ -0,0 +1,49 @@
+package com.talsa.rrhh.backend.repository;
+
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de tickets que se arman en tiempo de ejecución (fragmento de {@link TicketRepository}).
+ */
+public interface TicketConsultasRepository {
+
+    /**
+     * Recorre los tickets del filtro (más recientes primero) con un cursor de la BD: las filas llegan por
+     * bloques de fetch size, no todas a memoria. Debe consumirse dentro de una transacción y cerrarse.
+     */
+    Stream<TicketResponseDTO> recorrerConFiltros(FiltroTickets filtro);
+
+    /**
+     * Buscador maestro. Sin orden en el Pageable: más recientes primero.
+     *
+     * @throws IllegalArgumentException si se pide ordenar por un campo no permitido
+     */
+    Page<TicketResponseDTO> buscarConFiltros(FiltroTickets filtro, Pageable pageable);
+
+    /**
+     * Listado por cursor (keyset): los tickets del filtro que van DESPUÉS de 'desde' en el orden
+     * (fechaCreacion DESC, id DESC). Va directo a la posición por índice, sin saltar filas ni contar.
+     *
+     * @param desde null para la primera página
+     */
+    List<TicketResponseDTO> buscarDesdeCursor(FiltroTickets filtro, CursorTickets desde, int limite);
+
+    /**
+     * Como {@link #buscarConFiltros} pero sin COUNT: pide una fila de más para saber si hay página siguiente.
+     */
+    Slice<TicketResponseDTO> buscarSinConteo(FiltroTickets filtro, Pageable pageable);
+
+    long contarConFiltros(FiltroTickets filtro);
+
+    /**
+     * Filas de la tabla tickets según las estadísticas del planner (pg_class), escaladas al tamaño actual
+     * de la tabla como hace el propio planner. -1 si la tabla aún no tiene estadísticas.
+     */
+    long estimarTotalTickets();
+}
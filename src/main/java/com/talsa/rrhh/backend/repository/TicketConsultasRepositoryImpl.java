@@ -0,0 +1,176 @@
+package com.talsa.rrhh.backend.repository;
+
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Solo se agregan al WHERE los filtros que llegaron: un "(:x IS NULL OR ...)" por filtro obliga a
+ * PostgreSQL a un plan genérico (y sin tipo para los parámetros null).
+ * <p>
+ * DNI: 8 dígitos (o {@link FiltroTickets#dniExacto()}) = igualdad (índice B-tree); cualquier otro texto =
+ * "contiene" (índice trigram, ver V3).
+ */
+public class TicketConsultasRepositoryImpl implements TicketConsultasRepository {
+
+    // Filas por viaje a la BD al recorrer con cursor (el driver de PostgreSQL lo respeta dentro de una transacción)
+    private static final int FETCH_SIZE = 1000;
+
+    // Campos por los que el frontend puede ordenar (el Sort llega del request: nunca se concatena sin validar)
+    private static final Set<String> CAMPOS_ORDENABLES = Set.of(
+            "id", "dniSolicitante", "lugarAtencion", "categoria", "estado",
+            "fechaCreacion", "fechaInicioAtencion", "fechaFinAtencion");
+
+    private static final Sort ORDEN_POR_DEFECTO = Sort.by(Sort.Direction.DESC, "fechaCreacion", "id");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<TicketResponseDTO> recorrerConFiltros(FiltroTickets filtro) {
+        Where where = new Where(filtro);
+        TypedQuery<TicketResponseDTO> query = entityManager.createQuery(
+                TicketRepository.SELECT_TICKET_DTO + where.jpql + orderBy(ORDEN_POR_DEFECTO), TicketResponseDTO.class);
+        where.parametros.forEach(query::setParameter);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+
+    @Override
+    public Page<TicketResponseDTO> buscarConFiltros(FiltroTickets filtro, Pageable pageable) {
+        Where where = new Where(filtro);
+        List<TicketResponseDTO> contenido = listar(where, pageable, pageable.isPaged() ? pageable.getPageSize() : -1);
+
+        // El COUNT solo sobre tickets (sin los LEFT JOIN del listado) y solo si la página no alcanza a decir el total
+        return PageableExecutionUtils.getPage(contenido, pageable, () -> contar(where));
+    }
+
+    @Override
+    public Slice<TicketResponseDTO> buscarSinConteo(FiltroTickets filtro, Pageable pageable) {
+        List<TicketResponseDTO> contenido = listar(new Where(filtro), pageable, pageable.getPageSize() + 1);
+        boolean hayMas = contenido.size() > pageable.getPageSize();
+        return new SliceImpl<>(hayMas ? contenido.subList(0, pageable.getPageSize()) : contenido, pageable, hayMas);
+    }
+
+    @Override
+    public long contarConFiltros(FiltroTickets filtro) {
+        return contar(new Where(filtro));
+    }
+
+    @Override
+    public long estimarTotalTickets() {
+        Object estimado = entityManager.createNativeQuery(
+                "SELECT CASE WHEN c.reltuples < 0 OR c.relpages = 0 THEN -1 " +
+                        "ELSE (c.reltuples / c.relpages * (pg_relation_size(c.oid) / current_setting('block_size')::int))::bigint END " +
+                        "FROM pg_class c WHERE c.oid = 'tickets'::regclass").getSingleResult();
+        return ((Number) estimado).longValue();
+    }
+
+    @Override
+    public List<TicketResponseDTO> buscarDesdeCursor(FiltroTickets filtro, CursorTickets desde, int limite) {
+        Where where = new Where(filtro);
+        if (desde != null) {
+            // Comparación de tuplas: PostgreSQL la resuelve como un rango sobre (fecha_creacion, id)
+            where.jpql.append("AND (t.fechaCreacion, t.id) < (:cursorFecha, :cursorId) ");
+            where.parametros.put("cursorFecha", desde.fechaCreacion());
+            where.parametros.put("cursorId", desde.id());
+        }
+
+        TypedQuery<TicketResponseDTO> query = entityManager.createQuery(
+                TicketRepository.SELECT_TICKET_DTO + where.jpql + orderBy(ORDEN_POR_DEFECTO), TicketResponseDTO.class);
+        where.parametros.forEach(query::setParameter);
+        query.setMaxResults(limite);
+        return query.getResultList();
+    }
+
+    // Página del listado; limite -1 = sin límite (Pageable.unpaged)
+    private List<TicketResponseDTO> listar(Where where, Pageable pageable, int limite) {
+        Sort orden = pageable.getSort().isSorted() ? pageable.getSort() : ORDEN_POR_DEFECTO;
+        TypedQuery<TicketResponseDTO> query = entityManager.createQuery(
+                TicketRepository.SELECT_TICKET_DTO + where.jpql + orderBy(orden), TicketResponseDTO.class);
+        where.parametros.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+        }
+        if (limite >= 0) {
+            query.setMaxResults(limite);
+        }
+        return query.getResultList();
+    }
+
+    private long contar(Where where) {
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(t) FROM Ticket t " + where.jpql, Long.class);
+        where.parametros.forEach(count::setParameter);
+        return count.getSingleResult();
+    }
+
+    private static String orderBy(Sort orden) {
+        StringBuilder jpql = new StringBuilder("ORDER BY ");
+        String separador = "";
+        for (Sort.Order o : orden) {
+            if (!CAMPOS_ORDENABLES.contains(o.getProperty())) {
+                throw new IllegalArgumentException("No se puede ordenar por: " + o.getProperty());
+            }
+            jpql.append(separador).append("t.").append(o.getProperty()).append(o.isAscending() ? " ASC" : " DESC");
+            separador = ", ";
+        }
+        return jpql.toString();
+    }
+
+    // WHERE con los filtros presentes y sus parámetros
+    private static class Where {
+
+        private final StringBuilder jpql = new StringBuilder("WHERE 1 = 1 ");
+        private final Map<String, Object> parametros = new HashMap<>();
+
+        Where(FiltroTickets filtro) {
+            String dni = filtro.dni() == null ? "" : filtro.dni().trim();
+            if (filtro.dniExacto() && filtro.dni() != null) {
+                jpql.append("AND t.dniSolicitante = :dni ");
+                parametros.put("dni", filtro.dni());
+            } else if (dni.matches("\\d{8}")) {
+                jpql.append("AND t.dniSolicitante = :dni ");
+                parametros.put("dni", dni);
+            } else if (!dni.isEmpty()) {
+                jpql.append("AND t.dniSolicitante LIKE :dni ESCAPE '\\' ");
+                parametros.put("dni", "%" + escaparLike(dni) + "%");
+            }
+            if (filtro.estado() != null) {
+                jpql.append("AND t.estado = :estado ");
+                parametros.put("estado", filtro.estado());
+            }
+            if (filtro.categoria() != null) {
+                jpql.append("AND t.categoria = :categoria ");
+                parametros.put("categoria", filtro.categoria());
+            }
+            if (filtro.fechaInicio() != null) {
+                jpql.append("AND t.fechaCreacion >= :fechaInicio ");
+                parametros.put("fechaInicio", filtro.fechaInicio());
+            }
+            if (filtro.fechaFin() != null) {
+                jpql.append("AND t.fechaCreacion <= :fechaFin ");
+                parametros.put("fechaFin", filtro.fechaFin());
+            }
+        }
+
+        // '%' y '_' escritos por el usuario se buscan literalmente
+        private static String escaparLike(String texto) {
+            return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+    }
+}
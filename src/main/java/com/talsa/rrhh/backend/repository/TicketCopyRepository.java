@@ -0,0 +1,120 @@
+package com.talsa.rrhh.backend.repository;
+
+import com.talsa.rrhh.backend.entity.Ticket;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserción masiva de tickets con COPY de PostgreSQL (mucho más rápido que INSERT, incluso en batch).
+ * <p>
+ * - Usa la conexión de la transacción actual: si la transacción hace rollback, el COPY también.
+ * - Los ids se reservan de tickets_seq con la misma convención que Hibernate ("pooled", bloques de 50),
+ *   así no chocan con los que asigna JPA.
+ * - No pasa por Hibernate: los tickets insertados no quedan en el contexto de persistencia.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TicketCopyRepository {
+
+    // Debe coincidir con allocationSize de Ticket y el INCREMENT BY de tickets_seq
+    private static final int BLOQUE_SECUENCIA = 50;
+
+    private static final String COPY_TICKETS = "COPY tickets (id, dni_solicitante, lugar_atencion, categoria, " +
+            "sub_categoria, observacion, estado, usuario_atencion_id, fecha_creacion, fecha_inicio_atencion, " +
+            "fecha_fin_atencion) FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+
+    /**
+     * Inserta los tickets y les asigna su id.
+     *
+     * @return filas insertadas
+     */
+    public long insertar(List<Ticket> tickets) {
+        if (tickets.isEmpty()) {
+            return 0;
+        }
+
+        Connection conexion = DataSourceUtils.getConnection(dataSource);
+        try {
+            List<Long> ids = reservarIds(conexion, tickets.size());
+            PGCopyOutputStream copy = new PGCopyOutputStream(conexion.unwrap(PGConnection.class), COPY_TICKETS, 1 << 16);
+            try {
+                StringBuilder fila = new StringBuilder(256);
+                for (int i = 0; i < tickets.size(); i++) {
+                    Ticket ticket = tickets.get(i);
+                    ticket.setId(ids.get(i));
+                    fila.setLength(0);
+                    escribirFila(fila, ticket);
+                    copy.write(fila.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                return copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new DataAccessResourceFailureException("Error en la carga COPY de tickets: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexion, dataSource);
+        }
+    }
+
+    // Cada nextval v reserva (v-49 .. v), igual que el optimizador pooled de Hibernate
+    private static List<Long> reservarIds(Connection conexion, int cantidad) throws SQLException {
+        int bloques = (cantidad + BLOQUE_SECUENCIA - 1) / BLOQUE_SECUENCIA;
+        List<Long> ids = new ArrayList<>(bloques * BLOQUE_SECUENCIA);
+        try (PreparedStatement ps = conexion.prepareStatement("SELECT nextval('tickets_seq') FROM generate_series(1, ?)")) {
+            ps.setInt(1, bloques);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long alto = rs.getLong(1);
+                    for (long id = alto - BLOQUE_SECUENCIA + 1; id <= alto; id++) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void escribirFila(StringBuilder fila, Ticket t) {
+        fila.append(t.getId()).append(',');
+        texto(fila, t.getDniSolicitante()).append(',');
+        texto(fila, t.getLugarAtencion() == null ? null : t.getLugarAtencion().name()).append(',');
+        texto(fila, t.getCategoria() == null ? null : t.getCategoria().name()).append(',');
+        texto(fila, t.getSubCategoria() == null ? null : t.getSubCategoria().name()).append(',');
+        texto(fila, t.getObservacion()).append(',');
+        texto(fila, t.getEstado() == null ? null : t.getEstado().name()).append(',');
+        if (t.getUsuarioAtencion() != null) {
+            fila.append(t.getUsuarioAtencion().getId());
+        }
+        fila.append(',');
+        texto(fila, t.getFechaCreacion() == null ? null : t.getFechaCreacion().toString()).append(',');
+        texto(fila, t.getFechaInicioAtencion() == null ? null : t.getFechaInicioAtencion().toString()).append(',');
+        texto(fila, t.getFechaFinAtencion() == null ? null : t.getFechaFinAtencion().toString()).append('\n');
+    }
+
+    // CSV: null = campo vacío sin comillas; texto siempre entre comillas (comillas internas duplicadas)
+    private static StringBuilder texto(StringBuilder fila, String valor) {
+        if (valor == null) {
+            return fila;
+        }
+        return fila.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+}
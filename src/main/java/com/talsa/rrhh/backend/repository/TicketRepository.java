@@ -1,6 +1,7 @@
 package com.talsa.rrhh.backend.repository;
 
 import com.talsa.rrhh.backend.dto.ResumenAtencionDTO;
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
 import com.talsa.rrhh.backend.entity.Ticket;
 import com.talsa.rrhh.backend.enums.*;
 import org.springframework.data.domain.Page;
@@ -15,7 +16,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TicketRepository extends JpaRepository<Ticket, Long> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, TicketConsultasRepository {
 
     // --- CONSULTAS OPERATIVAS (Día a día) ---
 
@@ -64,27 +65,20 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
             LocalDateTime fin
     );
 
+    // Versión en lote para la carga masiva: todos los DNIs con ticket de esta categoría en el rango (Hoy)
+    @Query("SELECT DISTINCT t.dniSolicitante FROM Ticket t " +
+            "WHERE t.categoria = :categoria AND t.fechaCreacion BETWEEN :inicio AND :fin")
+    List<String> listarDnisConTicketEnRango(@Param("categoria") CategoriaAtencion categoria,
+                                            @Param("inicio") LocalDateTime inicio,
+                                            @Param("fin") LocalDateTime fin);
+
     // En lugar de devolver TODA la lista, devolvemos una "Página"
     Page<Ticket> findByDniSolicitante(String dniSolicitante, Pageable pageable);
 
     // Si quisieras ver todos los tickets del sistema paginados:
     Page<Ticket> findAll(Pageable pageable);
 
-    // --- NUEVO: FILTRO DINÁMICO MAESTRO ---
-    @Query("SELECT t FROM Ticket t WHERE " +
-            "(:dni IS NULL OR t.dniSolicitante LIKE %:dni%) AND " +
-            "(:estado IS NULL OR t.estado = :estado) AND " +
-            "(:categoria IS NULL OR t.categoria = :categoria) AND " +
-            "(:fechaInicio IS NULL OR t.fechaCreacion >= :fechaInicio) AND " +
-            "(:fechaFin IS NULL OR t.fechaCreacion <= :fechaFin)")
-    Page<Ticket> buscarConFiltros(
-            @Param("dni") String dni,
-            @Param("estado") EstadoTicket estado,
-            @Param("categoria") CategoriaAtencion categoria,
-            @Param("fechaInicio") LocalDateTime fechaInicio,
-            @Param("fechaFin") LocalDateTime fechaFin,
-            Pageable pageable
-    );
+    // --- FILTRO DINÁMICO MAESTRO: ver TicketConsultasRepository.buscarConFiltros ---
 
     boolean existsByDniSolicitanteAndEstadoIn(String dni, List<EstadoTicket> estados);
 
@@ -99,6 +93,32 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     // Ordenados: Agrupados por Categoría y luego por orden de llegada
     List<Ticket> findByEstadoInOrderByCategoriaAscFechaCreacionAsc(List<EstadoTicket> estados);
 
-    // Búsqueda operativa: Busca por DNI parcial, pero SOLO en tickets activos
-    List<Ticket> findByDniSolicitanteContainingAndEstadoIn(String dni, List<EstadoTicket> estados);
+    // --- PROYECCIONES DE SOLO LECTURA (LISTADOS) ---
+    // Construyen el DTO directamente en la consulta: sin entidades administradas, sin dirty-checking
+    // y con el nombre del solicitante y del atendedor resueltos por LEFT JOIN (sin consultas extra por fila).
+
+    String SELECT_TICKET_DTO = "SELECT new com.talsa.rrhh.backend.dto.TicketResponseDTO(" +
+            "t.id, t.dniSolicitante, t.lugarAtencion, t.categoria, t.subCategoria, t.observacion, t.estado, " +
+            "s.nombre, s.apellidos, a.nombre, a.apellidos, " +
+            "t.fechaCreacion, t.fechaInicioAtencion, t.fechaFinAtencion, t.version) " +
+            "FROM Ticket t " +
+            "LEFT JOIN t.usuarioAtencion a " +
+            "LEFT JOIN Usuario s ON s.username = t.dniSolicitante ";
+
+    // Cola de espera (PENDIENTE/AUSENTE): mismo orden que findByEstadoInOrderByCategoriaAscFechaCreacionAsc
+    @Query(SELECT_TICKET_DTO +
+            "WHERE t.estado IN :estados " +
+            "ORDER BY t.categoria ASC, t.fechaCreacion ASC")
+    List<TicketResponseDTO> listarColaDTO(@Param("estados") List<EstadoTicket> estados);
+
+    @Query(SELECT_TICKET_DTO + "WHERE t.estado = :estado")
+    List<TicketResponseDTO> listarPorEstadoDTO(@Param("estado") EstadoTicket estado);
+
+    @Query(value = SELECT_TICKET_DTO + "WHERE t.dniSolicitante = :dni",
+            countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.dniSolicitante = :dni")
+    Page<TicketResponseDTO> listarPorDniDTO(@Param("dni") String dni, Pageable pageable);
+
+    @Query(value = SELECT_TICKET_DTO,
+            countQuery = "SELECT COUNT(t) FROM Ticket t")
+    Page<TicketResponseDTO> listarTodosDTO(Pageable pageable);
 }
@@ -3,7 +3,10 @@ package com.talsa.rrhh.backend.repository;
 import com.talsa.rrhh.backend.entity.Usuario;
 import com.talsa.rrhh.backend.enums.Rol;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +16,10 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     // Busca al usuario por su DNI o user de red
     Optional<Usuario> findByUsername(String username);
 
+    // Solo los usernames que existen (carga masiva: valida un lote de DNIs en UNA consulta)
+    @Query("SELECT u.username FROM Usuario u WHERE u.username IN :usernames")
+    List<String> listarUsernamesExistentes(@Param("usernames") Collection<String> usernames);
+
     // 2. Validación: Verifica si el usuario existe antes de crearlo
     // Devuelve true si ya hay alguien con ese username
     boolean existsByUsername(String username);
@@ -21,4 +28,14 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     // Útil para poblar listas desplegables (Ej: "Seleccionar Atendedor")
     // Te permitirá listar solo a PERSONAL_RRHH y excluir a los ADMINS
     List<Usuario> findByRol(Rol rol);
+
+    // 4. Roles vigentes de todos los usuarios (solo 2 columnas)
+    // Lo usa VigenciaUsuarios para validar tokens sin consultar la BD en cada request
+    @Query("SELECT u.username AS username, u.rol AS rol FROM Usuario u")
+    List<RolUsuario> listarRoles();
+
+    interface RolUsuario {
+        String getUsername();
+        Rol getRol();
+    }
 }
@@ -1,6 +1,6 @@
 package com.talsa.rrhh.backend.security;
 
-import com.talsa.rrhh.backend.repository.UsuarioRepository;
+import com.talsa.rrhh.backend.service.DirectorioUsuarios;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,11 +17,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UsuarioRepository usuarioRepository;
+    private final DirectorioUsuarios directorioUsuarios;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> usuarioRepository.findByUsername(username)
+        // Login (DaoAuthenticationProvider): se sirve desde la caché del directorio
+        return username -> directorioUsuarios.buscarPorUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
     }
 
@@ -1,12 +1,14 @@
 package com.talsa.rrhh.backend.security;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -15,18 +17,33 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final LimitadorIntentosLogin limitadorIntentosLogin;
 
     @PostMapping("/login")
-    public ResponseEntity<TokenResponseDTO> login(@RequestBody LoginDTO loginRequest) {
+    public ResponseEntity<TokenResponseDTO> login(@RequestBody LoginDTO loginRequest, HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+
+        // 0. Reserva un intento del usuario y de la IP; sin cupo se corta aquí (429) sin gastar BCrypt
+        LimitadorIntentosLogin.Reserva reserva = limitadorIntentosLogin.reservar(loginRequest.getUsername(), ip);
+
         // 1. Validar usuario y contraseña (Spring Security lo hace por ti)
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            limitadorIntentosLogin.registrarFallo();
+            throw e;
+        } catch (RuntimeException e) {
+            limitadorIntentosLogin.liberar(reserva);
+            throw e;
+        }
+        limitadorIntentosLogin.registrarExito(reserva);
 
-        // 2. Si pasó, generar Token
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getUsername());
+        // 2. Si pasó, generar Token con el usuario ya cargado por la autenticación (sin segunda consulta)
+        final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         final String jwt = jwtUtil.generateToken(userDetails);
 
         return ResponseEntity.ok(new TokenResponseDTO(jwt));
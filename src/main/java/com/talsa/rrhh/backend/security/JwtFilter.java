@@ -1,59 +1,82 @@
 package com.talsa.rrhh.backend.security;
 
+import com.talsa.rrhh.backend.entity.Usuario;
+import com.talsa.rrhh.backend.repository.UsuarioRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UsuarioRepository usuarioRepository;
+    private final VigenciaUsuarios vigenciaUsuarios;
+
+    // true: el principal y su rol salen de los claims del token (sin BD) si el usuario sigue vigente
+    @Value("${seguridad.jwt.autenticacion-sin-bd:true}")
+    private boolean autenticacionSinBd;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
+        TokenVerificado token = null;
 
-        // 1. Verificar si viene el token
+        // 1. Verificar si viene el token (firma y expiración se validan UNA sola vez)
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7); // Quitar la palabra "Bearer "
+            String jwt = authHeader.substring(7); // Quitar la palabra "Bearer "
             try {
-                username = jwtUtil.extractUsername(jwt);
+                token = jwtUtil.verificar(jwt);
             } catch (Exception e) {
                 // Token inválido o expirado
                 System.out.println("Error JWT: " + e.getMessage());
             }
         }
 
-        // 2. Si hay usuario pero no está autenticado en el contexto actual
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            // 3. Validar token y configurar autenticación
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        // 2. Si el token es válido pero no está autenticado en el contexto actual
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken;
 
-                // Dar acceso al usuario en Spring Security
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (autenticacionSinBd && vigenciaUsuarios.esVigente(token.getUsername(), token.getRol())) {
+                // 3a. Solo claims: mismo rol que en la BD (según la foto en memoria)
+                authToken = new UsernamePasswordAuthenticationToken(
+                        token.getUsername(), null, List.of(new SimpleGrantedAuthority(token.getRol())));
+            } else {
+                // 3b. Usuario nuevo, eliminado o con rol cambiado: se consulta la BD directamente (la caché del
+                // directorio no se entera de cambios hechos en la BD) y el rol del token debe ser el actual
+                String rol = token.getRol();
+                Optional<Usuario> usuario = usuarioRepository.findByUsername(token.getUsername())
+                        .filter(u -> u.getRol().name().equals(rol));
+                if (usuario.isEmpty()) {
+                    // Se responde aquí (sendError pasaría por /error, que sin autenticación termina en 403)
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.setContentType("application/json;charset=UTF-8");
+                    response.getWriter().write("{\"error\":\"No autorizado\",\"mensaje\":\"Token no vigente: inicie sesión nuevamente\"}");
+                    return;
+                }
+                authToken = new UsernamePasswordAuthenticationToken(
+                        usuario.get(), null, usuario.get().getAuthorities());
             }
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            // Dar acceso al usuario en Spring Security
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         filterChain.doFilter(request, response);
     }
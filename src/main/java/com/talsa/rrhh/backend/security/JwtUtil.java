@@ -1,18 +1,28 @@
 package com.talsa.rrhh.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.talsa.rrhh.backend.dto.EstadisticasCacheDTO;
 import com.talsa.rrhh.backend.entity.Usuario;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
 
 @Component
 public class JwtUtil {
@@ -21,9 +31,23 @@ public class JwtUtil {
     // En producción, esto va en el application.properties, no aquí.
     private static final String SECRET_KEY = "TalsaRRHH2026_ClaveSuperSecretaParaFirmarTokens_SeguridadTotal";
 
-    private SecretKey getSignInKey() {
+    // La clave y el parser son inmutables y thread-safe: se construyen UNA vez
+    private final SecretKey signInKey;
+    private final JwtParser parser;
+
+    // SHA-256 del token -> claims ya verificados, hasta que el token expire.
+    // Se guarda el digest y no el token para no dejar credenciales en memoria.
+    private final Cache<String, TokenVerificado> verificados;
+
+    public JwtUtil(@Value("${jwt.cache.tamano-maximo:10000}") long tamanoMaximoCache) {
         byte[] keyBytes = Decoders.BASE64.decode(java.util.Base64.getEncoder().encodeToString(SECRET_KEY.getBytes()));
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signInKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+        this.verificados = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximoCache)
+                .expireAfter(new HastaLaExpiracion())
+                .recordStats()
+                .build();
     }
 
     // Generar Token (Ahora con datos extra)
@@ -49,40 +73,90 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 Horas de validez
-                .signWith(getSignInKey(), Jwts.SIG.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    // Validar Token
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /**
+     * Verifica firma y expiración UNA sola vez y devuelve los claims tipados.
+     * Los tokens ya verificados se sirven desde la caché hasta su expiración.
+     *
+     * @throws io.jsonwebtoken.JwtException si el token es inválido o expiró
+     */
+    public TokenVerificado verificar(String token) {
+        String digest = digest(token);
+        TokenVerificado cacheado = verificados.getIfPresent(digest);
+        if (cacheado != null && cacheado.getExpiracion().after(new Date())) {
+            return cacheado;
+        }
+
+        TokenVerificado verificado = verificarFirma(token);
+        verificados.put(digest, verificado);
+        return verificado;
     }
 
-    // Extraer Username del Token
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // Sin caché (package-private para el benchmark)
+    TokenVerificado verificarFirma(String token) {
+        Claims claims = extractAllClaims(token); // parseSignedClaims ya rechaza tokens expirados
+        Number idUsuario = claims.get("idUsuario", Number.class);
+        return new TokenVerificado(
+                claims.getSubject(),
+                claims.get("rol", String.class),
+                claims.get("nombre", String.class),
+                claims.get("apellidos", String.class),
+                idUsuario == null ? null : idUsuario.longValue(),
+                claims.getExpiration()
+        );
     }
 
-    // Métodos auxiliares
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public EstadisticasCacheDTO obtenerEstadisticasCache() {
+        CacheStats stats = verificados.stats();
+        return new EstadisticasCacheDTO(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                verificados.estimatedSize()
+        );
+    }
+
+    // Validar Token
+    public boolean validateToken(String token, UserDetails userDetails) {
+        TokenVerificado verificado = verificar(token);
+        return verificado.getUsername().equals(userDetails.getUsername());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static String digest(String token) {
+        try {
+            // MessageDigest no es thread-safe: una instancia por llamada (es barato)
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Cada entrada vive exactamente hasta la expiración de su token
+    private static class HastaLaExpiracion implements Expiry<String, TokenVerificado> {
+
+        @Override
+        public long expireAfterCreate(String digest, TokenVerificado token, long currentTime) {
+            long restanteMs = token.getExpiracion().getTime() - System.currentTimeMillis();
+            return Math.max(0, restanteMs) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, TokenVerificado token, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, TokenVerificado token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
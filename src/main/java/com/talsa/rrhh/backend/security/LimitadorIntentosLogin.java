@@ -0,0 +1,141 @@
+package com.talsa.rrhh.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.talsa.rrhh.backend.dto.EstadisticasLoginDTO;
+import com.talsa.rrhh.backend.exception.DemasiadosIntentosException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita los intentos de login por usuario y por IP (ventana fija) ANTES de ejecutar BCrypt:
+ * un ataque de fuerza bruta o de password spraying no puede consumir la CPU del servidor.
+ * <p>
+ * Cada intento RESERVA un cupo antes de autenticar (incremento por CAS que falla si ya no hay cupo):
+ * una ráfaga de requests en paralelo no pasa todas la verificación antes de que se cuente el primer fallo.
+ * Un login correcto devuelve su reserva; un fallo la deja contada.
+ * <p>
+ * El límite por IP es mucho más alto que el de usuario: la planta sale por una sola IP (y detrás de un
+ * proxy inverso la IP es la del proxy salvo que se configure server.forward-headers-strategy), así que
+ * solo corta el spraying masivo sin bloquear a todos por unos cuantos errores de tipeo.
+ * <p>
+ * Sin locks: cada clave guarda un AtomicLong con (ventana << 32 | intentos) que se actualiza por CAS.
+ * Las claves viven en una caché acotada, así un atacante no puede llenar la memoria con usuarios inventados.
+ */
+@Component
+public class LimitadorIntentosLogin {
+
+    private static final String PREFIJO_USUARIO = "u:";
+    private static final String PREFIJO_IP = "ip:";
+
+    private final int maxFallosUsuario;
+    private final int maxFallosIp;
+    private final long ventanaMs;
+
+    private final Cache<String, AtomicLong> fallos;
+
+    private final AtomicLong loginsExitosos = new AtomicLong();
+    private final AtomicLong intentosRechazados = new AtomicLong();
+    private final AtomicLong intentosBloqueados = new AtomicLong();
+
+    /**
+     * Cupo tomado por un intento en curso. Se devuelve con {@link #registrarExito} o {@link #liberar}.
+     */
+    public record Reserva(String username, String ip, long ventana) {
+    }
+
+    public LimitadorIntentosLogin(@Value("${seguridad.login.max-fallos-usuario:5}") int maxFallosUsuario,
+                                  @Value("${seguridad.login.max-fallos-ip:200}") int maxFallosIp,
+                                  @Value("${seguridad.login.ventana:5m}") Duration ventana,
+                                  @Value("${seguridad.login.claves-max:100000}") long clavesMax) {
+        this.maxFallosUsuario = maxFallosUsuario;
+        this.maxFallosIp = maxFallosIp;
+        this.ventanaMs = ventana.toMillis();
+        this.fallos = Caffeine.newBuilder()
+                .maximumSize(clavesMax)
+                .expireAfterWrite(ventana.multipliedBy(2))
+                .build();
+    }
+
+    /**
+     * Llamar antes de autenticar: toma un cupo del usuario y uno de la IP.
+     *
+     * @throws DemasiadosIntentosException si el usuario o la IP ya no tienen cupo en la ventana
+     */
+    public Reserva reservar(String username, String ip) {
+        long ventana = ventanaActual();
+        if (!tomarCupo(PREFIJO_USUARIO + username, ventana, maxFallosUsuario)) {
+            throw bloqueado(ventana);
+        }
+        if (!tomarCupo(PREFIJO_IP + ip, ventana, maxFallosIp)) {
+            devolverCupo(PREFIJO_USUARIO + username, ventana);
+            throw bloqueado(ventana);
+        }
+        return new Reserva(username, ip, ventana);
+    }
+
+    // Credenciales incorrectas: no hay nada que devolver, el cupo tomado en reservar() ya cuenta el fallo
+    public void registrarFallo() {
+        intentosRechazados.incrementAndGet();
+    }
+
+    // Un login correcto limpia los fallos del usuario y devuelve el cupo de la IP (los demás fallos de la IP siguen)
+    public void registrarExito(Reserva reserva) {
+        loginsExitosos.incrementAndGet();
+        fallos.invalidate(PREFIJO_USUARIO + reserva.username());
+        devolverCupo(PREFIJO_IP + reserva.ip(), reserva.ventana());
+    }
+
+    // El intento no llegó a decidirse (error inesperado, no de credenciales): devuelve ambos cupos
+    public void liberar(Reserva reserva) {
+        devolverCupo(PREFIJO_USUARIO + reserva.username(), reserva.ventana());
+        devolverCupo(PREFIJO_IP + reserva.ip(), reserva.ventana());
+    }
+
+    public EstadisticasLoginDTO obtenerEstadisticas() {
+        return new EstadisticasLoginDTO(
+                loginsExitosos.get(),
+                intentosRechazados.get(),
+                intentosBloqueados.get(),
+                fallos.estimatedSize()
+        );
+    }
+
+    private DemasiadosIntentosException bloqueado(long ventana) {
+        intentosBloqueados.incrementAndGet();
+        long restanteMs = (ventana + 1) * ventanaMs - System.currentTimeMillis();
+        return new DemasiadosIntentosException(
+                "Demasiados intentos fallidos. Intente nuevamente más tarde.",
+                Math.max(1, restanteMs / 1000));
+    }
+
+    private long ventanaActual() {
+        return System.currentTimeMillis() / ventanaMs;
+    }
+
+    // +1 solo si todavía hay cupo en la ventana (comprobar y contar en un mismo CAS)
+    private boolean tomarCupo(String clave, long ventana, int maximo) {
+        AtomicLong estado = fallos.get(clave, k -> new AtomicLong(ventana << 32));
+        while (true) {
+            long actual = estado.get();
+            int usados = (actual >>> 32) == ventana ? (int) actual : 0; // Ventana nueva: reinicia en 0
+            if (usados >= maximo) {
+                return false;
+            }
+            if (estado.compareAndSet(actual, (ventana << 32) | (usados + 1))) {
+                return true;
+            }
+        }
+    }
+
+    // Si la ventana ya cambió, el cupo reservado se perdió con ella: no hay nada que devolver
+    private void devolverCupo(String clave, long ventana) {
+        AtomicLong estado = fallos.getIfPresent(clave);
+        if (estado != null) {
+            estado.updateAndGet(actual -> (actual >>> 32) == ventana && (int) actual > 0 ? actual - 1 : actual);
+        }
+    }
+}
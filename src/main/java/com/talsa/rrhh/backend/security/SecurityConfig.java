@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -18,6 +19,7 @@ import java.util.List;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity // Activa los @PreAuthorize de los controladores (sin esto se ignoran)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
@@ -34,6 +36,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/tickets/registro").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/ws-tickets/**").permitAll()
+                        .requestMatchers("/api/tickets/cola/snapshot").permitAll() // Las TVs no inician sesión
                         .requestMatchers("/api/usuarios/info/**").permitAll()
 
                         // 2. SWAGGER (Documentación)
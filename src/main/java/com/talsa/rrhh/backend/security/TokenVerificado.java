@@ -0,0 +1,21 @@
+package com.talsa.rrhh.backend.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Claims de un JWT cuya firma y vigencia ya fueron verificadas por {@link JwtUtil#verificar(String)}.
+ * Inmutable: la misma instancia se comparte entre requests desde la caché de tokens.
+ */
+@Getter
+@AllArgsConstructor
+public class TokenVerificado {
+    private final String username;
+    private final String rol;          // Puede ser null en tokens sin datos extra
+    private final String nombre;
+    private final String apellidos;
+    private final Long idUsuario;
+    private final Date expiracion;
+}
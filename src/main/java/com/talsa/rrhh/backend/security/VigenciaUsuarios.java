@@ -0,0 +1,50 @@
+package com.talsa.rrhh.backend.security;
+
+import com.talsa.rrhh.backend.enums.Rol;
+import com.talsa.rrhh.backend.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Foto en memoria de username -> rol vigente, para autenticar requests solo con los claims del JWT.
+ * <p>
+ * Un token se acepta sin consultar la BD únicamente si su usuario existe en la foto con el MISMO rol.
+ * Si no (usuario nuevo en la BD, eliminado o con rol cambiado), JwtFilter lo busca en la BD sin caché y
+ * rechaza el token (401) si el usuario ya no existe o su rol no es el del token.
+ * La foto se recarga periódicamente; {@link #refrescar()} la fuerza (ej. tras editar usuarios en la BD).
+ */
+@Component
+@RequiredArgsConstructor
+public class VigenciaUsuarios {
+
+    private final UsuarioRepository usuarioRepository;
+
+    private volatile Map<String, Rol> roles = Map.of();
+
+    @PostConstruct
+    public void inicializar() {
+        refrescar();
+    }
+
+    @Scheduled(fixedDelayString = "${seguridad.vigencia.refresco:30s}", initialDelayString = "${seguridad.vigencia.refresco:30s}")
+    public void refrescar() {
+        Map<String, Rol> nuevos = new HashMap<>();
+        usuarioRepository.listarRoles().forEach(u -> nuevos.put(u.getUsername(), u.getRol()));
+        roles = Map.copyOf(nuevos);
+    }
+
+    // El token sigue siendo válido para este usuario y con este rol
+    public boolean esVigente(String username, String rol) {
+        Rol actual = roles.get(username);
+        return actual != null && actual.name().equals(rol);
+    }
+
+    public int getUsuariosEnMemoria() {
+        return roles.size();
+    }
+}
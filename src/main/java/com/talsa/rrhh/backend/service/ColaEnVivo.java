@@ -0,0 +1,239 @@
+package com.talsa.rrhh.backend.service;
+
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
+import com.talsa.rrhh.backend.enums.EstadoTicket;
+import com.talsa.rrhh.backend.enums.LugarAtencion;
+import com.talsa.rrhh.backend.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Cola materializada en memoria: tickets PENDIENTE / AUSENTE / EN_ATENCION.
+ * Las pantallas y los escritorios leen de aquí sin tocar PostgreSQL.
+ * <p>
+ * - Se reconstruye desde la BD al arrancar (y periódicamente como red de seguridad, ver EventosColaService).
+ * - Solo se modifica después del commit de las transiciones de TicketService (ver EventosColaService).
+ * - Cada cambio genera una {@link Foto} inmutable nueva con versión creciente: leer es una sola lectura volátil.
+ * - Junto con la foto se mantiene el {@link IndiceActivos} del buscador del dashboard.
+ * <p>
+ * Asume UNA instancia del backend (igual que el SimpleBroker de WebSocket).
+ */
+@Component
+@RequiredArgsConstructor
+public class ColaEnVivo {
+
+    private static final List<EstadoTicket> ESTADOS_EN_COLA = List.of(EstadoTicket.PENDIENTE, EstadoTicket.AUSENTE);
+
+    // Mismo orden que findByEstadoInOrderByCategoriaAscFechaCreacionAsc (categoria se guarda como texto)
+    private static final Comparator<TicketResponseDTO> ORDEN_COLA = Comparator
+            .comparing((TicketResponseDTO t) -> t.getCategoria().name())
+            .thenComparing(TicketResponseDTO::getFechaCreacion, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TicketResponseDTO::getId);
+
+    // "Llamando ahora": por orden de llamado
+    private static final Comparator<TicketResponseDTO> ORDEN_EN_ATENCION = Comparator
+            .comparing(TicketResponseDTO::getFechaInicioAtencion, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(TicketResponseDTO::getId);
+
+    private final TicketRepository ticketRepository;
+
+    // Tickets que salieron de la cola (FINALIZADO/CANCELADO) -> su versión: un cambio anterior que llegue tarde
+    // no los devuelve a las pantallas. Acotado: solo hace falta recordar los que salieron hace poco
+    private static final int RETIRADOS_MAX = 10_000;
+
+    private final IndiceActivos indice = new IndiceActivos();
+
+    private final Map<Long, Long> retirados = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> mayor) {
+            return size() > RETIRADOS_MAX;
+        }
+    };
+
+    private volatile Foto foto = new Foto(0, List.of(), List.of());
+
+    /**
+     * Estado inmutable de la cola en un instante. {@code version} sirve como secuencia de eventos.
+     */
+    public record Foto(long version, List<TicketResponseDTO> pendientes, List<TicketResponseDTO> enAtencion) {
+
+        // Vista de una sola oficina (mismo orden que la lista global)
+        public List<TicketResponseDTO> pendientesDe(LugarAtencion lugar) {
+            return filtrarPorLugar(pendientes, lugar);
+        }
+
+        public List<TicketResponseDTO> enAtencionDe(LugarAtencion lugar) {
+            return filtrarPorLugar(enAtencion, lugar);
+        }
+
+        private static List<TicketResponseDTO> filtrarPorLugar(List<TicketResponseDTO> lista, LugarAtencion lugar) {
+            return lista.stream().filter(t -> t.getLugarAtencion() == lugar).toList();
+        }
+    }
+
+    /**
+     * Cola leída de la BD y la versión de la foto en memoria cuando empezó la lectura.
+     */
+    public record LecturaBd(long versionAlLeer, List<TicketResponseDTO> pendientes, List<TicketResponseDTO> enAtencion) {
+    }
+
+    public enum ResultadoRecarga {
+        SIN_CAMBIOS,    // La BD coincide con la memoria: ni la versión cambia (los clientes no ven un salto)
+        APLICADA,       // La memoria se corrigió: nueva versión que hay que publicar
+        DESCARTADA      // Se aplicó un cambio mientras se leía la BD: la lectura puede ser vieja, leer otra vez
+    }
+
+    @PostConstruct
+    public void inicializar() {
+        reemplazar(leerDeBd());
+    }
+
+    /**
+     * Lee la cola completa de la BD SIN tomar el lock: los afterCommit que llegan mientras tanto (con su
+     * conexión a la BD todavía abierta) no esperan a estas consultas.
+     */
+    public LecturaBd leerDeBd() {
+        long versionAlLeer = foto.version();
+        List<TicketResponseDTO> pendientes = ticketRepository.listarColaDTO(ESTADOS_EN_COLA);
+        List<TicketResponseDTO> enAtencion = new ArrayList<>(ticketRepository.listarPorEstadoDTO(EstadoTicket.EN_ATENCION));
+        enAtencion.sort(ORDEN_EN_ATENCION);
+        return new LecturaBd(versionAlLeer, List.copyOf(pendientes), List.copyOf(enAtencion));
+    }
+
+    /**
+     * Reemplaza la cola por una lectura de la BD (solo comparar y cambiar la referencia dentro del lock).
+     * Si algún cambio se aplicó después de empezar la lectura, la lectura se descarta: podría ser anterior a él.
+     */
+    public synchronized ResultadoRecarga reemplazar(LecturaBd lectura) {
+        Foto actual = foto;
+        if (actual.version() != lectura.versionAlLeer()) {
+            return ResultadoRecarga.DESCARTADA;
+        }
+        if (lectura.pendientes().equals(actual.pendientes()) && lectura.enAtencion().equals(actual.enAtencion())) {
+            return ResultadoRecarga.SIN_CAMBIOS;
+        }
+        foto = new Foto(actual.version() + 1, lectura.pendientes(), lectura.enAtencion());
+        indice.reemplazar(activos());
+        return ResultadoRecarga.APLICADA;
+    }
+
+    /**
+     * Aplica el estado confirmado de un ticket: lo quita de donde estaba y lo inserta en la lista
+     * que corresponde a su estado (o en ninguna si ya está FINALIZADO/CANCELADO).
+     * <p>
+     * Los afterCommit de dos transacciones sobre el mismo ticket pueden llegar en cualquier orden: se descarta
+     * el cambio cuya versión del ticket no es mayor que la que ya tiene la cola.
+     *
+     * @return la versión nueva de la cola, o -1 si el cambio era más viejo que el estado actual (no se aplicó)
+     */
+    public synchronized long aplicar(TicketResponseDTO ticket) {
+        Foto actual = foto;
+        Long conocida = versionConocida(actual, ticket.getId());
+        if (conocida != null && ticket.getVersion() != null && ticket.getVersion() <= conocida) {
+            return -1;
+        }
+
+        List<TicketResponseDTO> pendientes = sinTicket(actual.pendientes(), ticket.getId());
+        List<TicketResponseDTO> enAtencion = sinTicket(actual.enAtencion(), ticket.getId());
+        retirados.remove(ticket.getId());
+
+        if (ESTADOS_EN_COLA.contains(ticket.getEstado())) {
+            insertarOrdenado(pendientes, ticket, ORDEN_COLA);
+            indice.agregar(ticket);
+        } else if (ticket.getEstado() == EstadoTicket.EN_ATENCION) {
+            insertarOrdenado(enAtencion, ticket, ORDEN_EN_ATENCION);
+            indice.agregar(ticket);
+        } else {
+            indice.quitar(ticket.getId());
+            if (ticket.getVersion() != null) {
+                retirados.put(ticket.getId(), ticket.getVersion());
+            }
+        }
+
+        Foto nueva = new Foto(actual.version() + 1, Collections.unmodifiableList(pendientes),
+                Collections.unmodifiableList(enAtencion));
+        foto = nueva;
+        return nueva.version();
+    }
+
+    public Foto foto() {
+        return foto;
+    }
+
+    public List<TicketResponseDTO> pendientes() {
+        return foto.pendientes();
+    }
+
+    public List<TicketResponseDTO> enAtencion() {
+        return foto.enAtencion();
+    }
+
+    // Todos los activos (cola + llamando ahora)
+    public List<TicketResponseDTO> activos() {
+        Foto actual = foto;
+        List<TicketResponseDTO> activos = new ArrayList<>(actual.pendientes().size() + actual.enAtencion().size());
+        activos.addAll(actual.pendientes());
+        activos.addAll(actual.enAtencion());
+        return activos;
+    }
+
+    /**
+     * Activos cuyo DNI o nombre contiene el texto (sin distinguir mayúsculas ni tildes), en el mismo
+     * orden que {@link #activos()}. Se filtra contra la foto actual: un ticket que acaba de salir de la
+     * cola no aparece aunque el índice todavía no se haya actualizado.
+     */
+    public List<TicketResponseDTO> buscarActivos(String texto) {
+        Set<Long> ids = indice.buscar(texto);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Foto actual = foto;
+        List<TicketResponseDTO> encontrados = new ArrayList<>(ids.size());
+        for (TicketResponseDTO t : actual.pendientes()) {
+            if (ids.contains(t.getId())) {
+                encontrados.add(t);
+            }
+        }
+        for (TicketResponseDTO t : actual.enAtencion()) {
+            if (ids.contains(t.getId())) {
+                encontrados.add(t);
+            }
+        }
+        return encontrados;
+    }
+
+    // Versión del ticket en la cola (o al salir de ella); null si la cola no lo conoce
+    private Long versionConocida(Foto actual, Long id) {
+        for (TicketResponseDTO t : actual.pendientes()) {
+            if (t.getId().equals(id)) {
+                return t.getVersion();
+            }
+        }
+        for (TicketResponseDTO t : actual.enAtencion()) {
+            if (t.getId().equals(id)) {
+                return t.getVersion();
+            }
+        }
+        return retirados.get(id);
+    }
+
+    private static List<TicketResponseDTO> sinTicket(List<TicketResponseDTO> lista, Long id) {
+        List<TicketResponseDTO> copia = new ArrayList<>(lista.size() + 1);
+        for (TicketResponseDTO t : lista) {
+            if (!t.getId().equals(id)) {
+                copia.add(t);
+            }
+        }
+        return copia;
+    }
+
+    private static void insertarOrdenado(List<TicketResponseDTO> lista, TicketResponseDTO ticket,
+                                         Comparator<TicketResponseDTO> orden) {
+        int pos = Collections.binarySearch(lista, ticket, orden);
+        lista.add(pos >= 0 ? pos : -(pos + 1), ticket);
+    }
+}
@@ -0,0 +1,47 @@
+package com.talsa.rrhh.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.talsa.rrhh.backend.repository.FiltroTickets;
+import com.talsa.rrhh.backend.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Totales aproximados para los listados paginados (?conteo=ESTIMADO): la pantalla solo muestra
+ * "página X de ~Y", no hace falta un COUNT exacto en cada página.
+ * <p>
+ * - Sin filtros: estadísticas del planner de PostgreSQL (costo cero, se actualizan con ANALYZE/autovacuum).
+ * - Con filtros: COUNT exacto, cacheado por combinación de filtros durante {@code paginacion.conteo.ttl}.
+ */
+@Service
+public class ConteoTicketsService {
+
+    private static final FiltroTickets SIN_FILTROS = new FiltroTickets(null, null, null, null, null);
+
+    private final TicketRepository ticketRepository;
+    private final Cache<FiltroTickets, Long> conteos;
+
+    public ConteoTicketsService(TicketRepository ticketRepository,
+                                @Value("${paginacion.conteo.ttl:60s}") Duration ttl,
+                                @Value("${paginacion.conteo.tamano-maximo:1000}") long tamanoMaximo) {
+        this.ticketRepository = ticketRepository;
+        this.conteos = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(tamanoMaximo)
+                .build();
+    }
+
+    public long estimar(FiltroTickets filtro) {
+        if (SIN_FILTROS.equals(filtro)) {
+            long estimado = ticketRepository.estimarTotalTickets();
+            if (estimado >= 0) {
+                return estimado;
+            }
+            // Tabla sin estadísticas todavía (recién creada): se cuenta y se cachea como cualquier filtro
+        }
+        return conteos.get(filtro, ticketRepository::contarConFiltros);
+    }
+}
@@ -0,0 +1,64 @@
+package com.talsa.rrhh.backend.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.talsa.rrhh.backend.dto.EstadisticasCacheDTO;
+import com.talsa.rrhh.backend.entity.Usuario;
+import com.talsa.rrhh.backend.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Directorio de usuarios en memoria (caché acotada por tamaño y TTL).
+ * Es la vía de lectura compartida por el login (vía UserDetailsService), TicketService y UsuarioController.
+ * Las entidades devueltas son compartidas: SOLO LECTURA. Para modificar un usuario usar el repositorio
+ * y luego llamar a {@link #invalidar(String)}.
+ */
+@Service
+public class DirectorioUsuarios {
+
+    // Se guarda Optional para recordar también los DNIs inexistentes (kiosko: DNI mal digitado).
+    // Esos duran poco: los usuarios se dan de alta fuera de esta app y no llega ninguna invalidación
+    private final LoadingCache<String, Optional<Usuario>> cache;
+
+    public DirectorioUsuarios(UsuarioRepository usuarioRepository,
+                              @Value("${usuarios.cache.tamano-maximo:10000}") long tamanoMaximo,
+                              @Value("${usuarios.cache.ttl:10m}") Duration ttl,
+                              @Value("${usuarios.cache.ttl-inexistentes:30s}") Duration ttlInexistentes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(Expiry.<String, Optional<Usuario>>writing(
+                        (username, usuario) -> usuario.isPresent() ? ttl : ttlInexistentes))
+                .recordStats()
+                .build(usuarioRepository::findByUsername);
+    }
+
+    public Optional<Usuario> buscarPorUsername(String username) {
+        return cache.get(username);
+    }
+
+    // Llamar siempre que se cree o modifique un usuario
+    public void invalidar(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidarTodo() {
+        cache.invalidateAll();
+    }
+
+    public EstadisticasCacheDTO obtenerEstadisticas() {
+        CacheStats stats = cache.stats();
+        return new EstadisticasCacheDTO(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                cache.estimatedSize()
+        );
+    }
+}
@@ -0,0 +1,216 @@
+package com.talsa.rrhh.backend.service;
+
+import com.talsa.rrhh.backend.config.MetricasWebSocket;
+import com.talsa.rrhh.backend.dto.EventoColaDTO;
+import com.talsa.rrhh.backend.dto.SnapshotColaDTO;
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
+import com.talsa.rrhh.backend.enums.LugarAtencion;
+import com.talsa.rrhh.backend.enums.TipoEventoCola;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publica los cambios de la cola hacia las pantallas.
+ * <p>
+ * Flujo de deltas: cada transición publica UN evento en {@link #TOPICO_EVENTOS} con número de secuencia
+ * (la versión de {@link ColaEnVivo}). Protocolo del cliente:
+ * 1. Suscribirse a {@link #TOPICO_EVENTOS}.
+ * 2. Pedir GET /api/tickets/cola/snapshot y aplicar solo eventos con secuencia mayor a la del snapshot.
+ * 3. Si llega una secuencia que no es la anterior + 1, volver al paso 2.
+ * 4. Un evento RESINCRONIZADO (la reconciliación periódica corrigió la cola desde la BD): volver al paso 2.
+ * <p>
+ * Además mantiene las listas completas en /topic/pendientes y /topic/en-atencion (supervisores y pantallas
+ * antiguas) y las de cada oficina en /topic/pendientes/{lugar} y /topic/en-atencion/{lugar}. Solo se reenvían
+ * las oficinas afectadas. Las listas se agrupan: varias transiciones dentro de {@code cola.broadcast.ventana}
+ * generan un solo envío.
+ * <p>
+ * Todo el envío ocurre en un hilo propio, después del commit: el request HTTP (y su conexión a la BD)
+ * no espera la serialización ni el push.
+ */
+@Service
+public class EventosColaService {
+
+    public static final String TOPICO_EVENTOS = "/topic/cola/eventos";
+    public static final String TOPICO_PENDIENTES = "/topic/pendientes";
+    public static final String TOPICO_EN_ATENCION = "/topic/en-atencion";
+
+    // Lecturas de la BD que se descartan como máximo por ronda de reconciliación (la cola cambió mientras tanto)
+    private static final int INTENTOS_RECONCILIACION = 3;
+
+    // Por oficina: /topic/pendientes/{lugar} y /topic/en-atencion/{lugar} (ej. /topic/pendientes/OFICINA_SEMILLERO)
+    public static String topicoPendientes(LugarAtencion lugar) {
+        return TOPICO_PENDIENTES + "/" + lugar.name();
+    }
+
+    public static String topicoEnAtencion(LugarAtencion lugar) {
+        return TOPICO_EN_ATENCION + "/" + lugar.name();
+    }
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ColaEnVivo colaEnVivo;
+    private final JsonMapper jsonMapper;
+    private final MetricasWebSocket metricasWebSocket;
+    private final long ventanaMs;
+
+    // Un solo hilo: los eventos salen en el mismo orden de su secuencia
+    private final ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "cola-broadcast");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // true = ya hay un envío de listas programado dentro de la ventana actual
+    private final AtomicBoolean listasPendientes = new AtomicBoolean(false);
+
+    // Oficinas con cambios desde el último envío de listas
+    private final Set<LugarAtencion> lugaresAfectados = ConcurrentHashMap.newKeySet();
+
+    public EventosColaService(SimpMessagingTemplate messagingTemplate,
+                              ColaEnVivo colaEnVivo,
+                              JsonMapper jsonMapper,
+                              MetricasWebSocket metricasWebSocket,
+                              @Value("${cola.broadcast.ventana:150ms}") Duration ventana) {
+        this.messagingTemplate = messagingTemplate;
+        this.colaEnVivo = colaEnVivo;
+        this.jsonMapper = jsonMapper;
+        this.metricasWebSocket = metricasWebSocket;
+        this.ventanaMs = ventana.toMillis();
+    }
+
+    public SnapshotColaDTO obtenerSnapshot() {
+        ColaEnVivo.Foto foto = colaEnVivo.foto(); // Una sola lectura: versión y listas son consistentes
+        return new SnapshotColaDTO(foto.version(), foto.pendientes(), foto.enAtencion());
+    }
+
+    /**
+     * Aplica el cambio a la cola en memoria y lo publica cuando la transacción actual confirme
+     * (nadie ve un cambio que luego se revierte). Sin transacción, lo hace de inmediato.
+     */
+    public void publicarTrasCommit(TipoEventoCola tipo, TicketResponseDTO ticket) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(tipo, ticket);
+                }
+            });
+        } else {
+            publicar(tipo, ticket);
+        }
+    }
+
+    /**
+     * Corre en el hilo del request: solo actualiza la memoria y encola el envío.
+     * synchronized: la secuencia se asigna y se encola en el mismo orden.
+     */
+    private synchronized void publicar(TipoEventoCola tipo, TicketResponseDTO ticket) {
+        long secuencia = colaEnVivo.aplicar(ticket);
+        if (secuencia < 0) {
+            return; // Llegó después de un cambio más nuevo del mismo ticket: la cola ya está al día
+        }
+        EventoColaDTO evento = new EventoColaDTO(secuencia, tipo, ticket, LocalDateTime.now());
+        ejecutor.execute(() -> enviar(TOPICO_EVENTOS, evento));
+
+        lugaresAfectados.add(ticket.getLugarAtencion());
+        if (listasPendientes.compareAndSet(false, true)) {
+            ejecutor.schedule(this::enviarListas, ventanaMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Red de seguridad: recarga la cola desde la BD. Si algo cambió, publica RESINCRONIZADO con la nueva
+     * secuencia y reenvía todas las listas (también las de las pantallas antiguas).
+     * Las consultas corren sin ningún lock; solo la comparación y el envío toman el de {@link #publicar}
+     * (mismo orden de secuencias). Si la cola cambió durante la lectura se vuelve a leer (pocas veces).
+     */
+    @Scheduled(fixedDelayString = "${cola.en-vivo.reconciliacion:5m}", initialDelayString = "${cola.en-vivo.reconciliacion:5m}")
+    public void reconciliar() {
+        for (int intento = 0; intento < INTENTOS_RECONCILIACION; intento++) {
+            ColaEnVivo.LecturaBd lectura = colaEnVivo.leerDeBd();
+            synchronized (this) {
+                ColaEnVivo.ResultadoRecarga resultado = colaEnVivo.reemplazar(lectura);
+                if (resultado == ColaEnVivo.ResultadoRecarga.APLICADA) {
+                    publicarResincronizacion();
+                }
+                if (resultado != ColaEnVivo.ResultadoRecarga.DESCARTADA) {
+                    return;
+                }
+            }
+        }
+        // Cola muy activa: los mismos eventos la mantienen al día; se reintenta en la siguiente ronda
+    }
+
+    private void publicarResincronizacion() {
+        long secuencia = colaEnVivo.foto().version();
+        System.out.println("🔄 Cola en vivo: la reconciliación corrigió diferencias con la BD (secuencia " + secuencia + ")");
+        EventoColaDTO evento = new EventoColaDTO(secuencia, TipoEventoCola.RESINCRONIZADO, null, LocalDateTime.now());
+        ejecutor.execute(() -> enviar(TOPICO_EVENTOS, evento));
+
+        lugaresAfectados.addAll(List.of(LugarAtencion.values()));
+        if (listasPendientes.compareAndSet(false, true)) {
+            ejecutor.schedule(this::enviarListas, ventanaMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void enviarListas() {
+        // Se libera ANTES de leer: un cambio que llegue durante el envío programa otro
+        listasPendientes.set(false);
+
+        // Listas completas (AHORA INCLUYE AUSENTES), leídas de memoria
+        ColaEnVivo.Foto foto = colaEnVivo.foto();
+        enviar(TOPICO_PENDIENTES, foto.pendientes());
+        enviar(TOPICO_EN_ATENCION, foto.enAtencion());
+
+        // Solo las oficinas que cambiaron
+        for (LugarAtencion lugar : LugarAtencion.values()) {
+            if (lugaresAfectados.remove(lugar)) {
+                enviar(topicoPendientes(lugar), foto.pendientesDe(lugar));
+                enviar(topicoEnAtencion(lugar), foto.enAtencionDe(lugar));
+            }
+        }
+    }
+
+    /**
+     * Serializa el payload UNA sola vez y lo publica como byte[] ya listo: el SimpleBroker entrega
+     * ese mismo buffer a todos los suscriptores del tópico, sin volver a pasar por Jackson.
+     */
+    private void enviar(String destino, Object payload) {
+        try {
+            byte[] json = jsonMapper.writeValueAsBytes(payload);
+            metricasWebSocket.registrarBroadcast(json.length);
+
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers.setLeaveMutable(true);
+            messagingTemplate.send(destino, MessageBuilder.createMessage(json, headers.getMessageHeaders()));
+        } catch (Exception e) {
+            // Un fallo de envío no debe matar el hilo de broadcast
+            System.out.println("⚠️ WebSocket: Error enviando a " + destino + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdown();
+    }
+}
@@ -0,0 +1,202 @@
+package com.talsa.rrhh.backend.service;
+
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
+import com.talsa.rrhh.backend.repository.FiltroTickets;
+import com.talsa.rrhh.backend.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+/**
+ * Exportación del historial de tickets (reporte mensual "Exportar a Excel").
+ * <p>
+ * Las filas se leen con un cursor de la BD y se escriben directo en la respuesta: ni la lista de tickets
+ * ni el archivo completo se arman en memoria.
+ * - XLSX: SXSSFWorkbook mantiene en memoria solo una ventana de filas; el resto va a un temporal comprimido.
+ * - CSV: UTF-8 con BOM y separador ';' (lo abre bien Excel en español). Los textos que Excel tomaría como
+ *   fórmula (=, +, -, @) salen con un apóstrofo delante: una observación escrita en el kiosko no se ejecuta.
+ * - NDJSON: un TicketResponseDTO por línea, para los listados "todo=true" del frontend.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportacionService {
+
+    // Filas que SXSSF mantiene en memoria antes de bajarlas al temporal
+    private static final int VENTANA_FILAS = 500;
+
+    private static final String[] COLUMNAS = {
+            "ID", "DNI", "Solicitante", "Lugar de atención", "Categoría", "Subcategoría", "Estado",
+            "Observación", "Atendido por", "Fecha de creación", "Inicio de atención", "Fin de atención"
+    };
+
+    private static final DateTimeFormatter FORMATO_FECHA_CSV = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final TicketRepository ticketRepository;
+    private final JsonMapper jsonMapper;
+
+    @Transactional(readOnly = true)
+    public void exportarXlsx(FiltroTickets filtro, OutputStream salida) throws IOException {
+        SXSSFWorkbook libro = new SXSSFWorkbook(VENTANA_FILAS);
+        libro.setCompressTempFiles(true);
+        try (Stream<TicketResponseDTO> tickets = ticketRepository.recorrerConFiltros(filtro)) {
+            SXSSFSheet hoja = libro.createSheet("Tickets");
+
+            Font negrita = libro.createFont();
+            negrita.setBold(true);
+            CellStyle estiloCabecera = libro.createCellStyle();
+            estiloCabecera.setFont(negrita);
+            CellStyle estiloFecha = libro.createCellStyle();
+            estiloFecha.setDataFormat(libro.createDataFormat().getFormat("dd/mm/yyyy hh:mm"));
+
+            Row cabecera = hoja.createRow(0);
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                cabecera.createCell(i).setCellValue(COLUMNAS[i]);
+                cabecera.getCell(i).setCellStyle(estiloCabecera);
+            }
+            hoja.createFreezePane(0, 1);
+
+            int[] numeroFila = {1};
+            tickets.forEach(t -> {
+                Row fila = hoja.createRow(numeroFila[0]++);
+                fila.createCell(0).setCellValue(t.getId());
+                fila.createCell(1).setCellValue(t.getDniSolicitante());
+                fila.createCell(2).setCellValue(t.getNombreSolicitante());
+                fila.createCell(3).setCellValue(texto(t.getLugarAtencion()));
+                fila.createCell(4).setCellValue(texto(t.getCategoria()));
+                fila.createCell(5).setCellValue(texto(t.getSubCategoria()));
+                fila.createCell(6).setCellValue(texto(t.getEstado()));
+                fila.createCell(7).setCellValue(texto(t.getObservacion()));
+                fila.createCell(8).setCellValue(texto(t.getTrabajadorAtencion()));
+                fecha(fila, 9, t.getFechaCreacion(), estiloFecha);
+                fecha(fila, 10, t.getFechaInicioAtencion(), estiloFecha);
+                fecha(fila, 11, t.getFechaFinAtencion(), estiloFecha);
+            });
+
+            libro.write(salida);
+        } finally {
+            libro.close(); // Borra los temporales de SXSSF
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarCsv(FiltroTickets filtro, OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        escritor.write('\uFEFF'); // BOM: Excel reconoce el UTF-8 (tildes y ñ)
+        escritor.write(String.join(";", COLUMNAS));
+        escritor.write("\r\n");
+
+        try (Stream<TicketResponseDTO> tickets = ticketRepository.recorrerConFiltros(filtro)) {
+            tickets.forEach(t -> {
+                try {
+                    escritor.write(String.valueOf(t.getId()));
+                    campoCsv(escritor, t.getDniSolicitante());
+                    campoCsv(escritor, t.getNombreSolicitante());
+                    campoCsv(escritor, texto(t.getLugarAtencion()));
+                    campoCsv(escritor, texto(t.getCategoria()));
+                    campoCsv(escritor, texto(t.getSubCategoria()));
+                    campoCsv(escritor, texto(t.getEstado()));
+                    campoCsv(escritor, texto(t.getObservacion()));
+                    campoCsv(escritor, texto(t.getTrabajadorAtencion()));
+                    campoCsv(escritor, fechaCsv(t.getFechaCreacion()));
+                    campoCsv(escritor, fechaCsv(t.getFechaInicioAtencion()));
+                    campoCsv(escritor, fechaCsv(t.getFechaFinAtencion()));
+                    escritor.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Normalmente el cliente cerró la descarga
+        }
+        escritor.flush();
+    }
+
+    /**
+     * La primera línea sale apenas llega la primera fila de la BD; después el buffer se envía cada vez
+     * que se llena. Sin filas, la respuesta queda vacía.
+     */
+    @Transactional(readOnly = true)
+    public void exportarNdjson(FiltroTickets filtro, OutputStream salida) throws IOException {
+        OutputStream escritor = new BufferedOutputStream(salida, 16 * 1024);
+        try (Stream<TicketResponseDTO> tickets = ticketRepository.recorrerConFiltros(filtro)) {
+            boolean[] primera = {true};
+            tickets.forEach(t -> {
+                try {
+                    escritor.write(jsonMapper.writeValueAsBytes(t));
+                    escritor.write('\n');
+                    if (primera[0]) {
+                        escritor.flush();
+                        primera[0] = false;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Normalmente el cliente cerró la conexión
+        }
+        escritor.flush();
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private static String texto(Object valor) {
+        return valor == null ? "" : valor.toString();
+    }
+
+    private static void fecha(Row fila, int columna, LocalDateTime valor, CellStyle estilo) {
+        if (valor != null) {
+            fila.createCell(columna).setCellValue(valor);
+            fila.getCell(columna).setCellStyle(estilo);
+        }
+    }
+
+    private static String fechaCsv(LocalDateTime valor) {
+        return valor == null ? "" : valor.format(FORMATO_FECHA_CSV);
+    }
+
+    // Antepone el separador, neutraliza fórmulas y pone comillas solo si el valor las necesita (RFC 4180)
+    private static void campoCsv(Writer escritor, String valor) throws IOException {
+        escritor.write(';');
+        if (esFormula(valor)) {
+            valor = "'" + valor;
+        }
+        if (valor.indexOf(';') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            escritor.write(valor);
+            return;
+        }
+        escritor.write('"');
+        escritor.write(valor.replace("\"", "\"\""));
+        escritor.write('"');
+    }
+
+    // Primer carácter con el que Excel puede arrancar una fórmula (también tabulador y retorno de carro)
+    private static boolean esFormula(String valor) {
+        if (valor.isEmpty()) {
+            return false;
+        }
+        char primero = valor.charAt(0);
+        return primero == '=' || primero == '+' || primero == '-' || primero == '@'
+                || primero == '\t' || primero == '\r';
+    }
+}
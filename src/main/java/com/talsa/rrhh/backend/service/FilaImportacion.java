@@ -0,0 +1,11 @@
+package com.talsa.rrhh.backend.service;
+
+/**
+ * Una fila de datos de un archivo de carga masiva (sin la cabecera).
+ *
+ * @param numero      número de fila en el archivo (1 = primera fila después de la cabecera)
+ * @param dni         primera columna, tal como se ve en la hoja (puede venir vacía)
+ * @param observacion segunda columna ("" si no tiene)
+ */
+public record FilaImportacion(int numero, String dni, String observacion) {
+}
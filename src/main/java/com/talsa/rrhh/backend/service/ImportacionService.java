@@ -0,0 +1,379 @@
+package com.talsa.rrhh.backend.service;
+
+import com.talsa.rrhh.backend.dto.ErrorFilaImportacionDTO;
+import com.talsa.rrhh.backend.dto.TrabajoImportacionDTO;
+import com.talsa.rrhh.backend.entity.Ticket;
+import com.talsa.rrhh.backend.entity.Usuario;
+import com.talsa.rrhh.backend.enums.CategoriaAtencion;
+import com.talsa.rrhh.backend.enums.EstadoImportacion;
+import com.talsa.rrhh.backend.enums.EstadoTicket;
+import com.talsa.rrhh.backend.enums.LugarAtencion;
+import com.talsa.rrhh.backend.repository.TicketCopyRepository;
+import com.talsa.rrhh.backend.repository.TicketRepository;
+import com.talsa.rrhh.backend.repository.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Carga masiva de tickets (regularizaciones) como trabajos en segundo plano.
+ * <p>
+ * - El archivo se copia a un temporal y la petición HTTP responde de inmediato con el id del trabajo.
+ * - Los trabajos corren en un ejecutor ACOTADO (hilos y cola configurables): dos cargas grandes a la vez
+ *   no consumen los hilos de Tomcat. Si la cola está llena se rechaza la carga (409).
+ * - Cada lote de filas se valida y se confirma en SU PROPIA transacción: no hay transacciones largas
+ *   que bloqueen el autovacuum, y el contexto de persistencia se vacía en cada commit.
+ * - El progreso se consulta con GET /api/tickets/importar/{id}. Los trabajos terminados se olvidan
+ *   después de {@code importacion.retencion}.
+ */
+@Service
+public class ImportacionService {
+
+    private final TicketRepository ticketRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TicketCopyRepository ticketCopyRepository;
+    private final LectorXlsxStreaming lectorXlsx;
+    private final LectorCsvStreaming lectorCsv;
+    private final TransactionTemplate transaccionPorLote;
+
+    private final int tamanoLote;
+    private final boolean copyHabilitado;
+    private final int umbralCopy;
+    private final int maxErroresReportados;
+    private final Duration retencion;
+
+    private final ThreadPoolExecutor ejecutor;
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+    public ImportacionService(TicketRepository ticketRepository,
+                              UsuarioRepository usuarioRepository,
+                              TicketCopyRepository ticketCopyRepository,
+                              LectorXlsxStreaming lectorXlsx,
+                              LectorCsvStreaming lectorCsv,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${importacion.tamano-lote:1000}") int tamanoLote,
+                              @Value("${importacion.copy.habilitado:false}") boolean copyHabilitado,
+                              @Value("${importacion.copy.umbral:1000}") int umbralCopy,
+                              @Value("${importacion.max-errores-reportados:1000}") int maxErroresReportados,
+                              @Value("${importacion.retencion:1h}") Duration retencion,
+                              @Value("${importacion.hilos:2}") int hilos,
+                              @Value("${importacion.cola-max:10}") int colaMax) {
+        this.ticketRepository = ticketRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.ticketCopyRepository = ticketCopyRepository;
+        this.lectorXlsx = lectorXlsx;
+        this.lectorCsv = lectorCsv;
+        this.transaccionPorLote = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+        this.copyHabilitado = copyHabilitado;
+        this.umbralCopy = umbralCopy;
+        this.maxErroresReportados = maxErroresReportados;
+        this.retencion = retencion;
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(colaMax), r -> {
+            Thread hilo = new Thread(r, "importacion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // ==========================================
+    // 1. API DEL SERVICIO
+    // ==========================================
+
+    /**
+     * Recibe el archivo (.xlsx o .csv) y encola la carga. No valida filas: eso ocurre en segundo plano.
+     *
+     * @throws IllegalStateException si ya hay demasiadas cargas en curso
+     */
+    public TrabajoImportacionDTO enviar(MultipartFile archivo,
+                                        LugarAtencion lugar,
+                                        CategoriaAtencion categoria,
+                                        String usernameResponsable) throws IOException {
+
+        Usuario responsable = usuarioRepository.findByUsername(usernameResponsable)
+                .orElseThrow(() -> new IllegalArgumentException("Usuario responsable no encontrado"));
+
+        // El temporal del multipart se borra al terminar la petición: se copia a uno propio
+        boolean csv = esCsv(archivo);
+        Path temporal = Files.createTempFile("importacion-", csv ? ".csv" : ".xlsx");
+        archivo.transferTo(temporal);
+
+        Trabajo trabajo = new Trabajo(UUID.randomUUID().toString(), archivo.getOriginalFilename(),
+                csv ? lectorCsv : lectorXlsx, csv ? "CSV" : "Excel", lugar, categoria, responsable);
+        trabajos.put(trabajo.id, trabajo);
+
+        try {
+            ejecutor.execute(() -> ejecutar(trabajo, temporal));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id);
+            Files.deleteIfExists(temporal);
+            throw new IllegalStateException("Hay demasiadas cargas masivas en curso. Intente nuevamente en unos minutos.");
+        }
+        return trabajo.aDTO();
+    }
+
+    // CSV por extensión o tipo de contenido; cualquier otro archivo se lee como Excel (.xlsx)
+    private static boolean esCsv(MultipartFile archivo) {
+        String nombre = archivo.getOriginalFilename();
+        String tipo = archivo.getContentType();
+        return (nombre != null && nombre.toLowerCase().endsWith(".csv"))
+                || (tipo != null && tipo.startsWith("text/csv"));
+    }
+
+    public TrabajoImportacionDTO consultar(String id) {
+        Trabajo trabajo = trabajos.get(id);
+        if (trabajo == null) {
+            throw new EntityNotFoundException("Carga masiva no encontrada (o ya expiró): " + id);
+        }
+        return trabajo.aDTO();
+    }
+
+    // Olvida los trabajos terminados hace más de 'retencion'
+    @Scheduled(fixedDelayString = "${importacion.limpieza:10m}")
+    public void limpiarTrabajosTerminados() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        trabajos.values().removeIf(t -> t.terminadoAntesDe(limite));
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdown();
+    }
+
+    // ==========================================
+    // 2. EJECUCIÓN (HILO DE IMPORTACIÓN)
+    // ==========================================
+
+    private void ejecutar(Trabajo trabajo, Path temporal) {
+        trabajo.iniciar();
+        try {
+            // Definir rango "HOY" para detectar duplicados
+            LocalDateTime inicioDia = LocalDate.now().atStartOfDay();
+            LocalDateTime finDia = LocalDate.now().atTime(LocalTime.MAX);
+
+            // Regla: 1 ticket por categoría por día en carga masiva. UNA consulta para todo el archivo;
+            // los DNIs creados en esta misma carga se agregan al set (duplicados dentro del archivo)
+            Set<String> dnisConTicketHoy = new HashSet<>(
+                    ticketRepository.listarDnisConTicketEnRango(trabajo.categoria, inicioDia, finDia));
+
+            List<FilaImportacion> lote = new ArrayList<>(tamanoLote);
+            trabajo.lector.leer(temporal, fila -> {
+                trabajo.filaLeida();
+
+                // 1. Validaciones básicas (sin BD)
+                if (fila.dni().isEmpty() || fila.dni().length() != 8) {
+                    trabajo.ignorada(fila, "DNI vacío o sin 8 dígitos");
+                    return;
+                }
+                lote.add(fila);
+                if (lote.size() >= tamanoLote) {
+                    confirmarLote(trabajo, lote, dnisConTicketHoy);
+                    lote.clear();
+                }
+            });
+            confirmarLote(trabajo, lote, dnisConTicketHoy);
+
+            // No notificamos por WebSocket porque son históricos/regularizaciones
+            trabajo.completar();
+        } catch (Exception e) {
+            System.out.println("❌ Carga masiva " + trabajo.id + " fallida: " + e.getMessage());
+            trabajo.fallar(e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException e) {
+                System.out.println("No se pudo borrar el temporal " + temporal + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Valida un lote (una consulta IN de DNIs) y guarda sus tickets en una transacción propia.
+     * Si el lote falla, sus DNIs se retiran del set de duplicados (no llegaron a la BD).
+     */
+    private void confirmarLote(Trabajo trabajo, List<FilaImportacion> lote, Set<String> dnisConTicketHoy) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        // 2. Validar existencia de los trabajadores del lote: UNA consulta IN
+        Set<String> dnisLote = new HashSet<>();
+        lote.forEach(fila -> dnisLote.add(fila.dni()));
+        Set<String> existentes = new HashSet<>(usuarioRepository.listarUsernamesExistentes(dnisLote));
+
+        List<Ticket> tickets = new ArrayList<>();
+        List<FilaImportacion> ignoradas = new ArrayList<>();
+        List<FilaImportacion> duplicadas = new ArrayList<>();
+        for (FilaImportacion fila : lote) {
+            String dni = fila.dni();
+
+            if (!existentes.contains(dni)) {
+                ignoradas.add(fila);
+                continue;
+            }
+
+            // 3. Validar DUPLICADOS (en la BD hoy o repetidos en el mismo archivo)
+            if (!dnisConTicketHoy.add(dni)) {
+                duplicadas.add(fila);
+                continue;
+            }
+
+            // 4. Crear Ticket (Directo a FINALIZADO)
+            LocalDateTime ahora = LocalDateTime.now();
+            tickets.add(Ticket.builder()
+                    .dniSolicitante(dni)
+                    .lugarAtencion(trabajo.lugar)
+                    .categoria(trabajo.categoria)
+                    .observacion("Carga Masiva " + trabajo.formato + ". " + fila.observacion())
+                    .estado(EstadoTicket.FINALIZADO) // No pasa por cola
+                    .fechaCreacion(ahora)
+                    .fechaInicioAtencion(ahora)
+                    .fechaFinAtencion(ahora)
+                    .usuarioAtencion(trabajo.responsable)
+                    .subCategoria(null)
+                    .build());
+        }
+
+        try {
+            transaccionPorLote.executeWithoutResult(estado -> {
+                // Lotes muy grandes: COPY de PostgreSQL; el resto, INSERTs en batch de JPA
+                if (copyHabilitado && tickets.size() >= umbralCopy) {
+                    ticketCopyRepository.insertar(tickets);
+                } else {
+                    ticketRepository.saveAll(tickets);
+                }
+            });
+        } catch (RuntimeException e) {
+            tickets.forEach(t -> dnisConTicketHoy.remove(t.getDniSolicitante()));
+            throw e;
+        }
+
+        trabajo.loteConfirmado(tickets.size(), ignoradas, duplicadas);
+    }
+
+    // ==========================================
+    // 3. ESTADO DE UN TRABAJO (thread-safe: lo escribe el hilo de importación, lo leen las peticiones)
+    // ==========================================
+
+    private class Trabajo {
+
+        private final String id;
+        private final String archivo;
+        private final LectorFilasImportacion lector;
+        private final String formato;
+        private final LugarAtencion lugar;
+        private final CategoriaAtencion categoria;
+        private final Usuario responsable;
+        private final LocalDateTime fechaRecepcion = LocalDateTime.now();
+
+        private EstadoImportacion estado = EstadoImportacion.EN_COLA;
+        private int filasLeidas;
+        private int lotesConfirmados;
+        private int creados;
+        private int duplicados;
+        private int ignorados;
+        private final List<ErrorFilaImportacionDTO> errores = new ArrayList<>();
+        private int erroresNoReportados;
+        private String mensaje;
+        private LocalDateTime fechaInicio;
+        private LocalDateTime fechaFin;
+
+        Trabajo(String id, String archivo, LectorFilasImportacion lector, String formato,
+                LugarAtencion lugar, CategoriaAtencion categoria, Usuario responsable) {
+            this.id = id;
+            this.archivo = archivo;
+            this.lector = lector;
+            this.formato = formato;
+            this.lugar = lugar;
+            this.categoria = categoria;
+            this.responsable = responsable;
+        }
+
+        synchronized void iniciar() {
+            estado = EstadoImportacion.PROCESANDO;
+            fechaInicio = LocalDateTime.now();
+        }
+
+        synchronized void filaLeida() {
+            filasLeidas++;
+        }
+
+        synchronized void ignorada(FilaImportacion fila, String motivo) {
+            ignorados++;
+            reportar(fila, motivo);
+        }
+
+        synchronized void loteConfirmado(int creadosLote, List<FilaImportacion> ignoradas, List<FilaImportacion> duplicadas) {
+            lotesConfirmados++;
+            creados += creadosLote;
+            ignorados += ignoradas.size();
+            duplicados += duplicadas.size();
+            ignoradas.forEach(fila -> reportar(fila, "DNI no registrado"));
+            duplicadas.forEach(fila -> reportar(fila, "Duplicado: ya tiene un ticket de esta categoría hoy"));
+        }
+
+        synchronized void completar() {
+            estado = EstadoImportacion.COMPLETADO;
+            fechaFin = LocalDateTime.now();
+            mensaje = String.format("Proceso completado. Creados: %d. Duplicados omitidos: %d. Ignorados (Error DNI): %d.",
+                    creados, duplicados, ignorados);
+        }
+
+        synchronized void fallar(Exception e) {
+            estado = EstadoImportacion.FALLIDO;
+            fechaFin = LocalDateTime.now();
+            mensaje = "Error al procesar el archivo: " + e.getMessage()
+                    + String.format(" (se guardaron %d tickets en %d lotes)", creados, lotesConfirmados);
+        }
+
+        synchronized boolean terminadoAntesDe(LocalDateTime limite) {
+            return fechaFin != null && fechaFin.isBefore(limite);
+        }
+
+        private void reportar(FilaImportacion fila, String motivo) {
+            if (errores.size() < maxErroresReportados) {
+                errores.add(new ErrorFilaImportacionDTO(fila.numero(), fila.dni(), motivo));
+            } else {
+                erroresNoReportados++;
+            }
+        }
+
+        synchronized TrabajoImportacionDTO aDTO() {
+            return TrabajoImportacionDTO.builder()
+                    .id(id)
+                    .estado(estado)
+                    .archivo(archivo)
+                    .lugarAtencion(lugar)
+                    .categoria(categoria)
+                    .responsable(responsable.getUsername())
+                    .filasLeidas(filasLeidas)
+                    .lotesConfirmados(lotesConfirmados)
+                    .creados(creados)
+                    .duplicados(duplicados)
+                    .ignorados(ignorados)
+                    .errores(List.copyOf(errores))
+                    .erroresNoReportados(erroresNoReportados)
+                    .mensaje(mensaje)
+                    .fechaRecepcion(fechaRecepcion)
+                    .fechaInicio(fechaInicio)
+                    .fechaFin(fechaFin)
+                    .build();
+        }
+    }
+}
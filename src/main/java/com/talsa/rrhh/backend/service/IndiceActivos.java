@@ -0,0 +1,93 @@
+package com.talsa.rrhh.backend.service;
+
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice de sufijos de DNI y nombre de los tickets activos, para el buscador del dashboard
+ * (se consulta en cada tecla que escribe el operador).
+ * <p>
+ * Cada sufijo se guarda ordenado como "sufijo\0id": un texto que aparece en cualquier parte del DNI o
+ * del nombre es el prefijo de alguno de sus sufijos, así que buscar es ubicar el primer sufijo mayor o
+ * igual y recorrer mientras empiece igual. Sin mayúsculas ni tildes ("garcia" encuentra "García").
+ * <p>
+ * Lo mantiene ColaEnVivo: las escrituras llegan con su lock tomado; las lecturas no se bloquean.
+ */
+public class IndiceActivos {
+
+    private static final char SEPARADOR = '\0';
+
+    private volatile ConcurrentSkipListMap<String, Long> sufijos = new ConcurrentSkipListMap<>();
+
+    // Claves de cada ticket, para poder quitarlas (solo se usa con el lock de ColaEnVivo)
+    private final Map<Long, List<String>> clavesPorTicket = new HashMap<>();
+
+    // Reemplaza todo el índice (al reconstruir la cola). Las búsquedas en curso terminan sobre el anterior
+    public void reemplazar(Collection<TicketResponseDTO> activos) {
+        ConcurrentSkipListMap<String, Long> nuevos = new ConcurrentSkipListMap<>();
+        clavesPorTicket.clear();
+        for (TicketResponseDTO t : activos) {
+            List<String> claves = claves(t);
+            claves.forEach(c -> nuevos.put(c, t.getId()));
+            clavesPorTicket.put(t.getId(), claves);
+        }
+        sufijos = nuevos;
+    }
+
+    public void agregar(TicketResponseDTO ticket) {
+        quitar(ticket.getId());
+        List<String> claves = claves(ticket);
+        claves.forEach(c -> sufijos.put(c, ticket.getId()));
+        clavesPorTicket.put(ticket.getId(), claves);
+    }
+
+    public void quitar(Long id) {
+        List<String> claves = clavesPorTicket.remove(id);
+        if (claves != null) {
+            claves.forEach(sufijos::remove);
+        }
+    }
+
+    // IDs de los tickets cuyo DNI o nombre contiene el texto
+    public Set<Long> buscar(String texto) {
+        String buscado = normalizar(texto.trim());
+        if (buscado.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Map.Entry<String, Long> e : sufijos.tailMap(buscado).entrySet()) {
+            if (!e.getKey().startsWith(buscado)) {
+                break;
+            }
+            ids.add(e.getValue());
+        }
+        return ids;
+    }
+
+    private static List<String> claves(TicketResponseDTO ticket) {
+        List<String> claves = new ArrayList<>();
+        agregarSufijos(claves, normalizar(ticket.getDniSolicitante()), ticket.getId());
+        agregarSufijos(claves, normalizar(ticket.getNombreSolicitante()), ticket.getId());
+        return claves;
+    }
+
+    private static void agregarSufijos(List<String> claves, String texto, Long id) {
+        for (int i = 0; i < texto.length(); i++) {
+            // La búsqueda llega sin espacios al inicio: los sufijos que empiezan con espacio no se usan
+            if (texto.charAt(i) != ' ') {
+                claves.add(texto.substring(i) + SEPARADOR + id);
+            }
+        }
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,197 @@
+package com.talsa.rrhh.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Lector .csv que recorre los bytes del archivo con un buffer fijo: no arma líneas ni hace split,
+ * solo copia los bytes de las columnas A (DNI) y B (observación) y crea sus dos String por fila.
+ * <p>
+ * - Separador ',' o ';' (Excel en español exporta con ';'): el primero que aparece fuera de comillas
+ *   (normalmente en la cabecera; si la cabecera tiene una sola columna, en la primera fila de datos).
+ * - Comillas según RFC 4180: "a;b" es un solo campo y "" dentro de comillas es una comilla.
+ * - Saltos de línea \n o \r\n; se ignoran las líneas vacías.
+ * - Codificación: con BOM, UTF-8. Sin BOM se valida como UTF-8 y, desde el primer campo que no lo es,
+ *   se lee como windows-1252 (el "CSV delimitado por comas" de Excel en español): la ñ y las tildes
+ *   no se pierden como caracteres de reemplazo.
+ */
+@Component
+public class LectorCsvStreaming implements LectorFilasImportacion {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private static final int COLUMNA_DNI = 0;
+    private static final int COLUMNA_OBSERVACION = 1;
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    @Override
+    public void leer(Path archivo, Consumer<FilaImportacion> alLeerFila) throws IOException {
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            new Parser(entrada, alLeerFila).recorrer();
+        }
+    }
+
+    // Estado del recorrido de UN archivo (no es thread-safe: se crea uno por lectura)
+    private static class Parser {
+
+        private final InputStream entrada;
+        private final Consumer<FilaImportacion> alLeerFila;
+        private final byte[] buffer = new byte[TAMANO_BUFFER];
+
+        // Bytes de las dos columnas que interesan (se reutilizan en cada fila)
+        private byte[] dni = new byte[32];
+        private byte[] observacion = new byte[256];
+        private int largoDni;
+        private int largoObservacion;
+
+        private byte separador; // 0 hasta encontrar el primero
+
+        // null = sin BOM y todo lo leído es UTF-8 válido (se sigue validando); si no, la codificación decidida
+        private Charset codificacion;
+        private final CharsetDecoder validadorUtf8 = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private int columna;
+        private int fila;
+        private boolean filaVacia = true;
+        private boolean entreComillas;
+        private boolean comillaPendiente; // comilla dentro de comillas: fin del campo o ""
+
+        Parser(InputStream entrada, Consumer<FilaImportacion> alLeerFila) {
+            this.entrada = entrada;
+            this.alLeerFila = alLeerFila;
+        }
+
+        void recorrer() throws IOException {
+            int leidos = entrada.read(buffer);
+            int inicio = 0;
+            // BOM UTF-8 (lo agregan Excel y varios sistemas al exportar)
+            if (leidos >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+                inicio = 3;
+                codificacion = StandardCharsets.UTF_8;
+            }
+            while (leidos > 0) {
+                for (int i = inicio; i < leidos; i++) {
+                    procesar(buffer[i]);
+                }
+                inicio = 0;
+                leidos = entrada.read(buffer);
+            }
+            // Última fila sin salto de línea final
+            if (!filaVacia) {
+                cerrarFila();
+            }
+        }
+
+        private void procesar(byte b) {
+            if (entreComillas) {
+                if (comillaPendiente) {
+                    comillaPendiente = false;
+                    if (b == '"') {
+                        agregar(b); // "" -> "
+                        return;
+                    }
+                    entreComillas = false; // La comilla anterior cerraba el campo: b se procesa normal
+                } else {
+                    if (b == '"') {
+                        comillaPendiente = true;
+                    } else {
+                        agregar(b);
+                    }
+                    return;
+                }
+            }
+
+            if (b == '\n') {
+                if (filaVacia) {
+                    if (fila > 0) {
+                        fila++; // Línea vacía: no se emite, pero cuenta para el número de fila del reporte
+                    }
+                } else {
+                    cerrarFila();
+                }
+            } else if (b == '\r') {
+                // Se ignora: el \n que sigue cierra la fila
+            } else if (esSeparador(b)) {
+                filaVacia = false;
+                columna++;
+            } else if (b == '"') {
+                filaVacia = false;
+                entreComillas = true;
+            } else {
+                filaVacia = false;
+                agregar(b);
+            }
+        }
+
+        private boolean esSeparador(byte b) {
+            if (separador == 0 && (b == ',' || b == ';')) {
+                separador = b; // El primero que aparece fuera de comillas
+            }
+            return b == separador;
+        }
+
+        private void agregar(byte b) {
+            if (columna == COLUMNA_DNI) {
+                if (largoDni == dni.length) {
+                    dni = Arrays.copyOf(dni, dni.length * 2);
+                }
+                dni[largoDni++] = b;
+            } else if (columna == COLUMNA_OBSERVACION) {
+                if (largoObservacion == observacion.length) {
+                    observacion = Arrays.copyOf(observacion, observacion.length * 2);
+                }
+                observacion[largoObservacion++] = b;
+            }
+        }
+
+        private void cerrarFila() {
+            if (fila > 0) { // La fila 0 es la cabecera
+                alLeerFila.accept(new FilaImportacion(fila,
+                        texto(dni, largoDni).trim(),
+                        texto(observacion, largoObservacion)));
+            }
+            fila++;
+            columna = 0;
+            largoDni = 0;
+            largoObservacion = 0;
+            filaVacia = true;
+            entreComillas = false;
+            comillaPendiente = false;
+        }
+
+        private String texto(byte[] bytes, int largo) {
+            if (codificacion == null && !esAscii(bytes, largo)) {
+                try {
+                    return validadorUtf8.decode(ByteBuffer.wrap(bytes, 0, largo)).toString();
+                } catch (CharacterCodingException e) {
+                    codificacion = WINDOWS_1252; // No es UTF-8: este campo y el resto del archivo
+                }
+            }
+            // ASCII se lee igual en UTF-8 y en windows-1252
+            return new String(bytes, 0, largo, codificacion == null ? StandardCharsets.UTF_8 : codificacion);
+        }
+
+        private static boolean esAscii(byte[] bytes, int largo) {
+            for (int i = 0; i < largo; i++) {
+                if (bytes[i] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
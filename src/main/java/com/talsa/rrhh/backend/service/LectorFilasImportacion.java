@@ -0,0 +1,14 @@
+package com.talsa.rrhh.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Lee un archivo de carga masiva fila por fila (streaming): nunca se carga el archivo completo en memoria.
+ * La primera fila es la cabecera y no se emite.
+ */
+public interface LectorFilasImportacion {
+
+    void leer(Path archivo, Consumer<FilaImportacion> alLeerFila) throws IOException;
+}
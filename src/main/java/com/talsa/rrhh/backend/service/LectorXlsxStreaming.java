@@ -0,0 +1,99 @@
+package com.talsa.rrhh.backend.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Lector .xlsx con el modelo de eventos (SAX) de POI: recorre el XML de la primera hoja y emite una
+ * {@link FilaImportacion} por fila. A diferencia de XSSFWorkbook, no arma el árbol de la hoja en memoria.
+ * <p>
+ * Solo las columnas A (DNI) y B (observación); el formato de las celdas es el mismo de DataFormatter
+ * (ej. un DNI numérico se lee "01234567" si la celda tiene formato de texto o de ceros a la izquierda).
+ */
+@Component
+public class LectorXlsxStreaming implements LectorFilasImportacion {
+
+    private static final int COLUMNA_DNI = 0;
+    private static final int COLUMNA_OBSERVACION = 1;
+
+    @Override
+    public void leer(Path archivo, Consumer<FilaImportacion> alLeerFila) throws IOException {
+        // Abrir desde archivo (no desde InputStream): el zip se lee por partes, no entero en memoria
+        try (OPCPackage paquete = OPCPackage.open(archivo.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(paquete);
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(paquete);
+
+            Iterator<InputStream> hojas = reader.getSheetsData();
+            if (!hojas.hasNext()) {
+                return;
+            }
+
+            try (InputStream hoja = hojas.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), textos, new EmisorFilas(alLeerFila), new DataFormatter(), false));
+                parser.parse(new InputSource(hoja));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("El archivo no es un Excel (.xlsx) válido: " + e.getMessage(), e);
+        }
+    }
+
+    // Acumula las celdas de la fila actual y la emite al cerrarse
+    private static class EmisorFilas implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Consumer<FilaImportacion> alLeerFila;
+        private String dni;
+        private String observacion;
+        private int columnaActual;
+
+        EmisorFilas(Consumer<FilaImportacion> alLeerFila) {
+            this.alLeerFila = alLeerFila;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            dni = "";
+            observacion = "";
+            columnaActual = -1;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // Algunas herramientas omiten la referencia "A1": se asume la columna siguiente
+            columnaActual = cellReference != null ? new CellReference(cellReference).getCol() : columnaActual + 1;
+            if (columnaActual == COLUMNA_DNI) {
+                dni = formattedValue == null ? "" : formattedValue.trim();
+            } else if (columnaActual == COLUMNA_OBSERVACION) {
+                observacion = formattedValue == null ? "" : formattedValue;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) {
+                return; // Cabecera
+            }
+            alLeerFila.accept(new FilaImportacion(rowNum, dni, observacion));
+        }
+    }
+}
@@ -7,18 +7,14 @@ import com.talsa.rrhh.backend.repository.*;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.time.*;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,7 +22,19 @@ public class TicketService {
 
     private final TicketRepository ticketRepository;
     private final UsuarioRepository usuarioRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final DirectorioUsuarios directorioUsuarios;
+    private final EventosColaService eventosColaService;
+    private final ColaEnVivo colaEnVivo;
+    private final ConteoTicketsService conteoTicketsService;
+
+    private static final int TAMANO_MAX_PAGINA_CURSOR = 500;
+
+    // Estados que se muestran en las pantallas (cola + llamando ahora)
+    private static final List<EstadoTicket> ESTADOS_EN_PANTALLA = List.of(
+            EstadoTicket.PENDIENTE,
+            EstadoTicket.EN_ATENCION,
+            EstadoTicket.AUSENTE
+    );
 
     // ==========================================
     // MÉTODOS AUXILIARES (CONVERSORES Y NOTIFICACIONES)
@@ -35,8 +43,14 @@ public class TicketService {
     /**
      * Convierte una Entidad Ticket a un DTO limpio para el Frontend.
      * Oculta datos sensibles del usuario y formatea el nombre del responsable.
+     * Solo para tickets individuales: los listados usan las proyecciones DTO de TicketRepository.
      */
     private TicketResponseDTO convertirADTO(Ticket ticket) {
+        Usuario solicitante = directorioUsuarios.buscarPorUsername(ticket.getDniSolicitante()).orElse(null);
+        return convertirADTO(ticket, solicitante);
+    }
+
+    private TicketResponseDTO convertirADTO(Ticket ticket, Usuario solicitante) {
         // 1. Formatear trabajador de atención (RRHH) - EXISTENTE
         String nombreTrabajadorRRHH = null;
         if (ticket.getUsuarioAtencion() != null) {
@@ -44,13 +58,10 @@ public class TicketService {
                     ticket.getUsuarioAtencion().getApellidos();
         }
 
-        // 2. BUSCAR NOMBRE DEL SOLICITANTE (TRABAJADOR) - NUEVO
+        // 2. NOMBRE DEL SOLICITANTE (TRABAJADOR) - ya resuelto por quien llama
         String nombreSolicitante = "DNI: " + ticket.getDniSolicitante(); // Valor por defecto
-        var usuarioOpt = usuarioRepository.findByUsername(ticket.getDniSolicitante());
-
-        if (usuarioOpt.isPresent()) {
-            Usuario u = usuarioOpt.get();
-            nombreSolicitante = u.getNombre() + " " + u.getApellidos();
+        if (solicitante != null) {
+            nombreSolicitante = solicitante.getNombre() + " " + solicitante.getApellidos();
         }
 
         return TicketResponseDTO.builder()
@@ -66,28 +77,23 @@ public class TicketService {
                 .fechaCreacion(ticket.getFechaCreacion())
                 .fechaInicioAtencion(ticket.getFechaInicioAtencion())
                 .fechaFinAtencion(ticket.getFechaFinAtencion())
+                .version(ticket.getVersion())
                 .build();
     }
 
     /**
      * Notifica a la TV vía WebSocket.
-     * Envía listas limpias (DTOs) para no exponer datos innecesarios en la pantalla pública.
+     * El cambio se aplica a la cola en memoria y se publica recién cuando la transacción confirma.
+     * Envía DTOs limpios para no exponer datos innecesarios en la pantalla pública.
      */
-    private void notificarCambiosEnCola() {
-        // 1. Canal de Espera (AHORA INCLUYE AUSENTES)
-        List<EstadoTicket> estadosVisibles = List.of(EstadoTicket.PENDIENTE, EstadoTicket.AUSENTE);
-
-        List<TicketResponseDTO> cola = ticketRepository.findByEstadoInOrderByCategoriaAscFechaCreacionAsc(estadosVisibles)
-                .stream().map(this::convertirADTO).collect(Collectors.toList());
-
-        messagingTemplate.convertAndSend("/topic/pendientes", cola);
-
-        // 2. Canal de "Llamando Ahora" (Se mantiene igual, solo EN_ATENCION)
-        List<TicketResponseDTO> enAtencion = ticketRepository.findByEstado(EstadoTicket.EN_ATENCION)
-                .stream().map(this::convertirADTO).collect(Collectors.toList());
-        messagingTemplate.convertAndSend("/topic/en-atencion", enAtencion);
+    private void notificarCambiosEnCola(TipoEventoCola tipo, TicketResponseDTO ticket) {
+        eventosColaService.publicarTrasCommit(tipo, ticket);
+    }
 
-        System.out.println("📡 WebSocket: Listas actualizadas (Pendientes + Ausentes)");
+    // Con la precisión de PostgreSQL (microsegundos): el DTO en la cola en memoria coincide con lo que
+    // devuelve la BD, así la reconciliación de ColaEnVivo no ve diferencias que no existen
+    private static LocalDateTime ahora() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     // ==========================================
@@ -98,7 +104,7 @@ public class TicketService {
     public TicketResponseDTO registrarSolicitud(TicketRegistroDTO dto) {
 
         // 1. Validar Usuario (Igual que antes)
-        Usuario usuarioSolicitante = usuarioRepository.findByUsername(dto.getDniSolicitante())
+        Usuario usuarioSolicitante = directorioUsuarios.buscarPorUsername(dto.getDniSolicitante())
                 .orElseThrow(() -> new EntityNotFoundException("El DNI ingresado no corresponde a un usuario registrado."));
 
         // 2. Regla de Roles (Igual que antes)
@@ -125,30 +131,41 @@ public class TicketService {
                 .categoria(dto.getCategoria())
                 .observacion(dto.getObservacion())
                 .estado(EstadoTicket.PENDIENTE)
-                .fechaCreacion(LocalDateTime.now())
+                .fechaCreacion(ahora())
                 .build();
 
-        Ticket guardado = ticketRepository.save(nuevoTicket);
-        notificarCambiosEnCola();
-
-        return convertirADTO(guardado);
+        Ticket guardado = ticketRepository.saveAndFlush(nuevoTicket);
+        TicketResponseDTO respuesta = convertirADTO(guardado);
+        notificarCambiosEnCola(TipoEventoCola.AGREGADO, respuesta);
+        return respuesta;
     }
 
     // ==========================================
     // 2. LÓGICA OPERATIVA (RRHH)
     // ==========================================
 
+    // Listas de pantalla: se sirven desde la cola en memoria (sin consultar la BD)
     public List<TicketResponseDTO> listarTicketsPendientes() {
-        // AHORA BUSCAMOS PENDIENTES Y AUSENTES
-        List<EstadoTicket> estadosVisibles = List.of(EstadoTicket.PENDIENTE, EstadoTicket.AUSENTE);
-
-        return ticketRepository.findByEstadoInOrderByCategoriaAscFechaCreacionAsc(estadosVisibles)
-                .stream().map(this::convertirADTO).collect(Collectors.toList());
+        // PENDIENTES Y AUSENTES
+        return colaEnVivo.pendientes();
     }
 
     public List<TicketResponseDTO> listarTicketsEnAtencion() {
-        return ticketRepository.findByEstado(EstadoTicket.EN_ATENCION)
-                .stream().map(this::convertirADTO).collect(Collectors.toList());
+        return colaEnVivo.enAtencion();
+    }
+
+    // Versión por oficina (carga inicial de las TVs suscritas a /topic/pendientes/{lugar})
+    public List<TicketResponseDTO> listarTicketsPendientes(LugarAtencion lugar) {
+        return colaEnVivo.foto().pendientesDe(lugar);
+    }
+
+    public List<TicketResponseDTO> listarTicketsEnAtencion(LugarAtencion lugar) {
+        return colaEnVivo.foto().enAtencionDe(lugar);
+    }
+
+    // Foto completa de las pantallas + su secuencia, para (re)sincronizar clientes del flujo de eventos
+    public SnapshotColaDTO obtenerSnapshotCola() {
+        return eventosColaService.obtenerSnapshot();
     }
 
     @Transactional
@@ -166,12 +183,12 @@ public class TicketService {
 
         ticket.setEstado(EstadoTicket.EN_ATENCION);
         ticket.setUsuarioAtencion(usuario);
-        ticket.setFechaInicioAtencion(LocalDateTime.now());
-
-        Ticket guardado = ticketRepository.save(ticket);
-        notificarCambiosEnCola();
+        ticket.setFechaInicioAtencion(ahora());
 
-        return convertirADTO(guardado);
+        Ticket guardado = ticketRepository.saveAndFlush(ticket);
+        TicketResponseDTO respuesta = convertirADTO(guardado);
+        notificarCambiosEnCola(TipoEventoCola.LLAMADO, respuesta);
+        return respuesta;
     }
 
     @Transactional
@@ -205,7 +222,7 @@ public class TicketService {
 
         // --- 3. CIERRE NORMAL ---
         ticket.setEstado(EstadoTicket.FINALIZADO);
-        ticket.setFechaFinAtencion(LocalDateTime.now());
+        ticket.setFechaFinAtencion(ahora());
 
         if (dto.getSubCategoria() != null) {
             ticket.setSubCategoria(dto.getSubCategoria());
@@ -218,10 +235,10 @@ public class TicketService {
             ticket.setObservacion(obsActual + separador + "Cierre: " + dto.getObservacion());
         }
 
-        Ticket guardado = ticketRepository.save(ticket);
-        notificarCambiosEnCola();
-
-        return convertirADTO(guardado);
+        Ticket guardado = ticketRepository.saveAndFlush(ticket);
+        TicketResponseDTO respuesta = convertirADTO(guardado);
+        notificarCambiosEnCola(TipoEventoCola.REMOVIDO, respuesta);
+        return respuesta;
     }
 
     // ==========================================
@@ -236,15 +253,46 @@ public class TicketService {
     // Historial Paginado Simple
     @Transactional(Transactional.TxType.SUPPORTS)
     public Page<TicketResponseDTO> obtenerHistorialPaginado(String dni, Pageable pageable) {
-        return ticketRepository.findByDniSolicitante(dni, pageable)
-                .map(this::convertirADTO);
+        return ticketRepository.listarPorDniDTO(dni, pageable);
     }
 
     // Historial General Paginado (Para el Jefe)
     @Transactional(Transactional.TxType.SUPPORTS)
     public Page<TicketResponseDTO> obtenerTodosLosTickets(Pageable pageable) {
-        return ticketRepository.findAll(pageable)
-                .map(this::convertirADTO);
+        return ticketRepository.listarTodosDTO(pageable);
+    }
+
+    // Listados paginados sin COUNT exacto por página (?conteo=ESTIMADO o NINGUNO)
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public PaginaResponseDTO<TicketResponseDTO> listarSinConteoExacto(FiltroTickets filtro, Pageable pageable, ModoConteo modo) {
+        Slice<TicketResponseDTO> pagina = ticketRepository.buscarSinConteo(filtro, pageable);
+        if (modo == ModoConteo.NINGUNO) {
+            return new PaginaResponseDTO<>(pagina);
+        }
+        // Si la primera página ya trae todo, el total es exacto y no hace falta estimar
+        if (!pagina.hasNext() && pageable.getOffset() == 0) {
+            return new PaginaResponseDTO<>(pagina, pagina.getNumberOfElements());
+        }
+        return new PaginaResponseDTO<>(pagina, conteoTicketsService.estimar(filtro));
+    }
+
+    // Listados por cursor (keyset): la página que sigue a 'cursor' (vacío = primera página), sin COUNT
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public PaginaCursorDTO<TicketResponseDTO> listarPorCursor(FiltroTickets filtro, String cursor, int tamano) {
+        if (tamano < 1 || tamano > TAMANO_MAX_PAGINA_CURSOR) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANO_MAX_PAGINA_CURSOR);
+        }
+        CursorTickets desde = cursor.isBlank() ? null : CursorTickets.desdeTexto(cursor);
+
+        // Se pide una fila de más: si llega, hay página siguiente
+        List<TicketResponseDTO> filas = ticketRepository.buscarDesdeCursor(filtro, desde, tamano + 1);
+        if (filas.size() <= tamano) {
+            return new PaginaCursorDTO<>(filas, tamano, null);
+        }
+        List<TicketResponseDTO> contenido = filas.subList(0, tamano);
+        TicketResponseDTO ultimo = contenido.get(tamano - 1);
+        return new PaginaCursorDTO<>(contenido, tamano,
+                new CursorTickets(ultimo.getFechaCreacion(), ultimo.getId()).aTexto());
     }
 
     // Buscador Maestro con Filtros Dinámicos
@@ -261,99 +309,7 @@ public class TicketService {
         LocalDateTime inicio = (fechaDesde != null) ? fechaDesde.atStartOfDay() : null;
         LocalDateTime fin = (fechaHasta != null) ? fechaHasta.atTime(LocalTime.MAX) : null;
 
-        return ticketRepository.buscarConFiltros(dni, estado, categoria, inicio, fin, pageable)
-                .map(this::convertirADTO);
-    }
-
-    // ==========================================
-    // 4. CARGA MASIVA (EXCEL)
-    // ==========================================
-
-    @Transactional
-    public String importarTicketsMasivos(MultipartFile archivo,
-                                         LugarAtencion lugar,
-                                         CategoriaAtencion categoria,
-                                         String usernameResponsable) throws IOException {
-
-        Usuario responsable = usuarioRepository.findByUsername(usernameResponsable)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario responsable no encontrado"));
-
-        List<Ticket> ticketsParaGuardar = new ArrayList<>();
-        int filasIgnoradas = 0;
-        int filasDuplicadas = 0;
-        int filasExitosas = 0;
-
-        // Definir rango "HOY" para detectar duplicados
-        LocalDateTime inicioDia = LocalDate.now().atStartOfDay();
-        LocalDateTime finDia = LocalDate.now().atTime(LocalTime.MAX);
-
-        try (Workbook workbook = new XSSFWorkbook(archivo.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            DataFormatter dataFormatter = new DataFormatter();
-
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                // Lectura segura de celdas
-                Cell celdaDni = row.getCell(0);
-                String dni = dataFormatter.formatCellValue(celdaDni).trim();
-
-                Cell celdaObs = row.getCell(1);
-                String observacionExcel = (celdaObs != null) ? dataFormatter.formatCellValue(celdaObs) : "";
-
-                // 1. Validaciones básicas
-                if (dni.isEmpty() || dni.length() != 8) {
-                    filasIgnoradas++;
-                    continue;
-                }
-
-                // 2. Validar existencia del trabajador
-                Optional<Usuario> trabajadorOpt = usuarioRepository.findByUsername(dni);
-                if (trabajadorOpt.isEmpty()) {
-                    filasIgnoradas++;
-                    System.out.println("⚠️ DNI no encontrado: " + dni);
-                    continue;
-                }
-
-                // 3. Validar DUPLICADOS (Regla: 1 ticket por categoría por día en carga masiva)
-                boolean yaExiste = ticketRepository.existsByDniSolicitanteAndCategoriaAndFechaCreacionBetween(
-                        dni, categoria, inicioDia, finDia
-                );
-
-                if (yaExiste) {
-                    filasDuplicadas++;
-                    System.out.println("🔁 Duplicado omitido: " + dni);
-                    continue;
-                }
-
-                // 4. Crear Ticket (Directo a FINALIZADO)
-                LocalDateTime ahora = LocalDateTime.now();
-
-                Ticket ticket = Ticket.builder()
-                        .dniSolicitante(dni)
-                        .lugarAtencion(lugar)
-                        .categoria(categoria)
-                        .observacion("Carga Masiva Excel. " + observacionExcel)
-                        .estado(EstadoTicket.FINALIZADO) // No pasa por cola
-                        .fechaCreacion(ahora)
-                        .fechaInicioAtencion(ahora)
-                        .fechaFinAtencion(ahora)
-                        .usuarioAtencion(responsable)
-                        .subCategoria(null)
-                        .build();
-
-                ticketsParaGuardar.add(ticket);
-                filasExitosas++;
-            }
-        }
-
-        ticketRepository.saveAll(ticketsParaGuardar);
-
-        // No notificamos por WebSocket porque son históricos/regularizaciones
-
-        return String.format("Proceso completado. Creados: %d. Duplicados omitidos: %d. Ignorados (Error DNI): %d.",
-                filasExitosas, filasDuplicadas, filasIgnoradas);
+        return ticketRepository.buscarConFiltros(new FiltroTickets(dni, estado, categoria, inicio, fin), pageable);
     }
 
     @Transactional
@@ -377,12 +333,14 @@ public class TicketService {
             ticket.setObservacion(dto.getObservacion());
         }
 
-        Ticket guardado = ticketRepository.save(ticket);
+        Ticket guardado = ticketRepository.saveAndFlush(ticket);
 
-        // ¡IMPORTANTE! Notificar a la TV porque la información cambió
-        notificarCambiosEnCola();
-
-        return convertirADTO(guardado);
+        // ¡IMPORTANTE! Notificar a la TV porque la información cambió (si está en pantalla)
+        TicketResponseDTO respuesta = convertirADTO(guardado);
+        if (ESTADOS_EN_PANTALLA.contains(guardado.getEstado())) {
+            notificarCambiosEnCola(TipoEventoCola.MOVIDO, respuesta);
+        }
+        return respuesta;
     }
 
     // ==========================================
@@ -411,7 +369,7 @@ public class TicketService {
 
         // Permitir cancelar tickets PENDIENTES o EN_ATENCION
         ticket.setEstado(EstadoTicket.CANCELADO);
-        ticket.setFechaFinAtencion(LocalDateTime.now());
+        ticket.setFechaFinAtencion(ahora());
 
         // Guardamos el motivo de la cancelación
         if (observacion != null && !observacion.isEmpty()) {
@@ -419,10 +377,10 @@ public class TicketService {
             ticket.setObservacion(obsActual + " | Cancelado: " + observacion);
         }
 
-        Ticket guardado = ticketRepository.save(ticket);
-        notificarCambiosEnCola(); // Actualiza la pantalla para que desaparezca
-
-        return convertirADTO(guardado);
+        Ticket guardado = ticketRepository.saveAndFlush(ticket);
+        TicketResponseDTO respuesta = convertirADTO(guardado);
+        notificarCambiosEnCola(TipoEventoCola.REMOVIDO, respuesta); // Actualiza la pantalla para que desaparezca
+        return respuesta;
     }
 
     @Transactional
@@ -435,31 +393,21 @@ public class TicketService {
         }
 
         ticket.setEstado(EstadoTicket.AUSENTE);
-        ticket.setFechaFinAtencion(LocalDateTime.now());
+        ticket.setFechaFinAtencion(ahora());
 
         // Agregamos una nota automática
         String obsActual = (ticket.getObservacion() == null) ? "" : ticket.getObservacion();
         ticket.setObservacion(obsActual + " | Marcado como AUSENTE (No se presentó).");
 
-        Ticket guardado = ticketRepository.save(ticket);
-        notificarCambiosEnCola(); // Actualiza la TV (El ticket desaparece de la pantalla)
-
-        return convertirADTO(guardado);
+        Ticket guardado = ticketRepository.saveAndFlush(ticket);
+        TicketResponseDTO respuesta = convertirADTO(guardado);
+        notificarCambiosEnCola(TipoEventoCola.MOVIDO, respuesta); // Actualiza la TV (El ticket desaparece de la pantalla)
+        return respuesta;
     }
 
-    // Búsqueda para el Dashboard (Solo lo que está vivo hoy)
+    // Búsqueda para el Dashboard (Solo lo que está vivo hoy: PENDIENTE, EN_ATENCION, AUSENTE)
     public List<TicketResponseDTO> buscarTicketsActivos(String query) {
-        // Definimos los estados que consideramos "Activos" en el tablero
-        List<EstadoTicket> estadosActivos = List.of(
-                EstadoTicket.PENDIENTE,
-                EstadoTicket.EN_ATENCION,
-                EstadoTicket.AUSENTE
-        );
-
-        // Buscamos coincidencias
-        return ticketRepository.findByDniSolicitanteContainingAndEstadoIn(query, estadosActivos)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        // DNI o nombre parcial, con el índice de la cola en memoria
+        return colaEnVivo.buscarActivos(query);
     }
 }
@@ -0,0 +1,36 @@
+-- Esquema base (el mismo que generaba Hibernate con ddl-auto=update).
+-- Idempotente: en bases existentes (baseline-on-migrate) no cambia nada.
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    apellidos varchar(255),
+    nombre varchar(255),
+    password varchar(255) NOT NULL,
+    rol varchar(255) NOT NULL CHECK ((rol IN ('ADMIN_TI','JEFE_RRHH','PERSONAL_RRHH','TRABAJADOR'))),
+    username varchar(255) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS tickets (
+    dni_solicitante varchar(8) NOT NULL,
+    fecha_creacion timestamp(6),
+    fecha_fin_atencion timestamp(6),
+    fecha_inicio_atencion timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    usuario_atencion_id bigint,
+    categoria varchar(255) NOT NULL CHECK ((categoria IN ('ENTREGA_BOLETAS','TRAMITE_VACACIONES','QR_PHOTOCHECKS','JUSTIFICACION_FALTAS','INFORMACION','QUEJAS_RECLAMOS'))),
+    estado varchar(255) CHECK ((estado IN ('PENDIENTE','EN_ATENCION','FINALIZADO','AUSENTE','CANCELADO'))),
+    lugar_atencion varchar(255) NOT NULL CHECK ((lugar_atencion IN ('OFICINA_AVO','OFICINA_SEMILLERO','OFICINA_SAN_VICENTE','CAMPO','LLAMADAS_TELEFONICAS','WHATSAPP'))),
+    observacion TEXT,
+    sub_categoria varchar(255) CHECK ((sub_categoria IN ('SINDICATO','TRATO_PERSONAL','SERVICIO_MOVILIDAD','CONDICIONES_LABORALES','OTROS'))),
+    PRIMARY KEY (id)
+);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk8tu8dp4dv40hurao6b2tsmf0t') THEN
+        ALTER TABLE tickets
+            ADD CONSTRAINT FK8tu8dp4dv40hurao6b2tsmf0t
+            FOREIGN KEY (usuario_atencion_id) REFERENCES usuarios;
+    END IF;
+END $$;
@@ -0,0 +1,11 @@
+-- tickets.id pasa de IDENTITY a una secuencia con bloques de 50 (optimizador "pooled" de Hibernate):
+-- con IDENTITY Hibernate no puede agrupar INSERTs en batch.
+--
+-- Cada valor v de la secuencia reserva los ids (v-49 .. v). Se arranca en MAX(id) + 50 para que el
+-- primer bloque empiece justo después de los tickets existentes.
+
+CREATE SEQUENCE IF NOT EXISTS tickets_seq INCREMENT BY 50 MINVALUE 1;
+
+SELECT setval('tickets_seq', COALESCE((SELECT MAX(id) FROM tickets), 0) + 50, false);
+
+ALTER TABLE tickets ALTER COLUMN id DROP IDENTITY IF EXISTS;
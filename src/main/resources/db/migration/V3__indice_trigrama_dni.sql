@@ -0,0 +1,6 @@
+-- Búsqueda de DNI parcial (LIKE '%1234%') en el buscador maestro: un B-tree no sirve para "contiene",
+-- un índice GIN de trigramas sí (desde 3 caracteres). El DNI completo (8 dígitos) se busca por igualdad.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_tickets_dni_trgm ON tickets USING gin (dni_solicitante gin_trgm_ops);
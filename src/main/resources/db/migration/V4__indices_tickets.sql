@@ -0,0 +1,26 @@
+-- Índices de tickets según los accesos de TicketRepository (la tabla solo crece: histórico de atenciones).
+-- Los tickets activos (cola) son pocos frente al histórico: sus consultas usan índices parciales.
+
+-- Historial por DNI (más recientes primero), resumen por DNI y reglas anti-duplicado por DNI + fecha
+CREATE INDEX IF NOT EXISTS idx_tickets_dni_fecha
+    ON tickets (dni_solicitante, fecha_creacion DESC);
+
+-- Historial general, buscador por fechas, exportación y reporte mensual (id desempata el orden)
+CREATE INDEX IF NOT EXISTS idx_tickets_fecha_id
+    ON tickets (fecha_creacion DESC, id DESC);
+
+-- Buscador por categoría + fechas y duplicados de la carga masiva (categoría del día)
+CREATE INDEX IF NOT EXISTS idx_tickets_categoria_fecha
+    ON tickets (categoria, fecha_creacion);
+
+-- Tickets activos (cola en vivo y anti-spam de la tablet: ¿este DNI ya tiene un ticket activo?).
+-- Son unos cientos frente al histórico: el índice parcial es diminuto y la cola se ordena en memoria
+CREATE INDEX IF NOT EXISTS idx_tickets_activos_dni
+    ON tickets (dni_solicitante)
+    WHERE estado IN ('PENDIENTE', 'EN_ATENCION', 'AUSENTE');
+
+-- Atendedor: la FK no crea índice en PostgreSQL (recuperación de sesión y ranking de productividad)
+CREATE INDEX IF NOT EXISTS idx_tickets_usuario_estado
+    ON tickets (usuario_atencion_id, estado);
+
+ANALYZE tickets;
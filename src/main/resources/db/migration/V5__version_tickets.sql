@@ -0,0 +1,3 @@
+-- Versión de cada ticket (@Version en Ticket): bloqueo optimista entre escritorios y orden de los
+-- cambios que llegan a la cola en memoria (ColaEnVivo descarta un estado más viejo que el que ya tiene).
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
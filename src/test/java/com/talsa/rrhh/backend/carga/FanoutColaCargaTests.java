@@ -0,0 +1,452 @@
+package com.talsa.rrhh.backend.carga;
+
+import com.talsa.rrhh.backend.config.ControlConsumidoresLentos;
+import com.talsa.rrhh.backend.config.MetricasWebSocket;
+import com.talsa.rrhh.backend.dto.BacklogSesionWebSocketDTO;
+import com.talsa.rrhh.backend.dto.EstadisticasWebSocketDTO;
+import com.talsa.rrhh.backend.entity.Usuario;
+import com.talsa.rrhh.backend.enums.CategoriaAtencion;
+import com.talsa.rrhh.backend.enums.LugarAtencion;
+import com.talsa.rrhh.backend.enums.Rol;
+import com.talsa.rrhh.backend.repository.UsuarioRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prueba de carga de extremo a extremo del fanout de la cola:
+ * "el escritorio presiona iniciar" -> "todas las TVs recibieron el evento".
+ * <p>
+ * Levanta la aplicación completa sobre un Postgres embebido, conecta N suscriptores STOMP/SockJS a
+ * /ws-tickets (/topic/cola/eventos y /topic/pendientes) y recorre registrar -> iniciar -> finalizar
+ * por HTTP a un ritmo fijo. Reporta la latencia de propagación p50/p99/máx (por entrega y hasta la
+ * última TV) y la memoria del heap.
+ * <p>
+ * Solo corre con el perfil 'carga':
+ * <pre>
+ * mvn -Pcarga test -Dcarga.suscriptores=500 -Dcarga.operaciones=900 -Dcarga.operaciones-por-segundo=30
+ * </pre>
+ * Nota: servidor y clientes comparten la JVM, la memoria reportada incluye ambos.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false"
+        })
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+class FanoutColaCargaTests {
+
+    // Parámetros (-Dcarga.xxx)
+    private static final int SUSCRIPTORES = Integer.getInteger("carga.suscriptores", 300);
+    private static final int OPERACIONES = Integer.getInteger("carga.operaciones", 600);
+    private static final int OPERACIONES_POR_SEGUNDO = Integer.getInteger("carga.operaciones-por-segundo", 20);
+    private static final int COLA_INICIAL = Integer.getInteger("carga.cola-inicial", 50);
+    private static final long ESPERA_FINAL_SEGUNDOS = Long.getLong("carga.espera-final-segundos", 30);
+
+    private static final int TAMANO_MAX_MENSAJE = 128 * 1024;
+
+    private static final String TOPICO_EVENTOS = "/topic/cola/eventos";
+    private static final String TOPICO_PENDIENTES = "/topic/pendientes";
+
+    // Escritorio de RRHH creado por DataInitializer
+    private static final String ESCRITORIO_USUARIO = "20202020";
+    private static final String ESCRITORIO_PASSWORD = "rrhh123";
+
+    private static EmbeddedPostgres postgres;
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private MetricasWebSocket metricasWebSocket;
+
+    @Autowired
+    private ControlConsumidoresLentos controlConsumidoresLentos;
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo iniciar el Postgres embebido", e);
+            }
+        }
+        return postgres;
+    }
+
+    @AfterAll
+    static void detenerBaseDeDatos() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void fanoutDeLaCola() throws Exception {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        RestClient http = RestClient.builder().baseUrl("http://localhost:" + puerto).build();
+        String token = iniciarSesion(http);
+
+        // 1. Solicitantes: uno por ticket (la regla anti-spam impide dos tickets activos por DNI)
+        int registros = COLA_INICIAL + (OPERACIONES + 2) / 3;
+        List<String> dnis = crearSolicitantes(registros);
+
+        // 2. Cola inicial (sin medir) para que las listas tengan un tamaño realista
+        Deque<Long> pendientes = new ArrayDeque<>();
+        Deque<Long> enAtencion = new ArrayDeque<>();
+        Map<Long, String> dniPorTicket = new ConcurrentHashMap<>();
+        int siguienteDni = 0;
+        for (; siguienteDni < COLA_INICIAL; siguienteDni++) {
+            String dni = dnis.get(siguienteDni);
+            long id = registrar(http, dni).path("id").asLong();
+            dniPorTicket.put(id, dni);
+            pendientes.add(id);
+        }
+
+        long heapBase = heapUsado(memoria);
+
+        // 3. Pantallas
+        WebSocketStompClient stompClient = crearClienteStomp();
+        List<Pantalla> pantallas = new ArrayList<>();
+        for (int i = 0; i < SUSCRIPTORES; i++) {
+            pantallas.add(conectarPantalla(stompClient));
+        }
+        long heapConPantallas = heapUsado(memoria);
+        System.out.println("Pantallas conectadas: " + pantallas.size());
+
+        // 4. Carga: registrar -> iniciar -> finalizar a ritmo fijo
+        Map<String, Long> enviados = new ConcurrentHashMap<>();
+        AtomicLong heapPico = new AtomicLong(heapConPantallas);
+        ScheduledExecutorService muestreo = Executors.newSingleThreadScheduledExecutor();
+        muestreo.scheduleAtFixedRate(
+                () -> heapPico.accumulateAndGet(memoria.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 100, TimeUnit.MILLISECONDS);
+
+        long intervaloNanos = TimeUnit.SECONDS.toNanos(1) / OPERACIONES_POR_SEGUNDO;
+        long inicioCarga = System.nanoTime();
+        for (int op = 0; op < OPERACIONES; op++) {
+            long turno = inicioCarga + op * intervaloNanos;
+            long espera = turno - System.nanoTime();
+            if (espera > 0) {
+                TimeUnit.NANOSECONDS.sleep(espera);
+            }
+
+            switch (op % 3) {
+                case 0 -> {
+                    String dni = dnis.get(siguienteDni++);
+                    enviados.put(dni + ":AGREGADO", System.nanoTime());
+                    long id = registrar(http, dni).path("id").asLong();
+                    dniPorTicket.put(id, dni);
+                    pendientes.add(id);
+                }
+                case 1 -> {
+                    Long id = pendientes.poll();
+                    enviados.put(dniPorTicket.get(id) + ":LLAMADO", System.nanoTime());
+                    http.post().uri("/api/tickets/{id}/iniciar", id)
+                            .header("Authorization", "Bearer " + token)
+                            .retrieve().toBodilessEntity();
+                    enAtencion.add(id);
+                }
+                default -> {
+                    Long id = enAtencion.poll();
+                    enviados.put(dniPorTicket.get(id) + ":REMOVIDO", System.nanoTime());
+                    http.post().uri("/api/tickets/{id}/finalizar", id)
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(Map.of())
+                            .retrieve().toBodilessEntity();
+                }
+            }
+        }
+        double segundosCarga = (System.nanoTime() - inicioCarga) / 1e9;
+
+        // 5. Esperar a que todas las pantallas reciban todo lo medido
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(ESPERA_FINAL_SEGUNDOS);
+        while (System.nanoTime() < limite && !todasRecibieron(pantallas, enviados)) {
+            Thread.sleep(100);
+        }
+        muestreo.shutdownNow();
+
+        // Métricas del broker antes de desconectar (backlog por sesión)
+        EstadisticasWebSocketDTO broker = metricasWebSocket.obtenerEstadisticas();
+        long backlogMax = controlConsumidoresLentos.obtenerBacklogPorSesion().stream()
+                .mapToLong(BacklogSesionWebSocketDTO::getMensajesPendientes).max().orElse(0);
+
+        // 6. Latencias
+        long[] porEntrega = new long[enviados.size() * pantallas.size()];
+        long[] hastaUltimaPantalla = new long[enviados.size()];
+        int entregas = 0;
+        int eventos = 0;
+        int perdidos = 0;
+        for (Map.Entry<String, Long> envio : enviados.entrySet()) {
+            long ultima = 0;
+            for (Pantalla pantalla : pantallas) {
+                Long recibido = pantalla.recibidos.get(envio.getKey());
+                if (recibido == null) {
+                    perdidos++;
+                    continue;
+                }
+                long latencia = recibido - envio.getValue();
+                porEntrega[entregas++] = latencia;
+                ultima = Math.max(ultima, latencia);
+            }
+            hastaUltimaPantalla[eventos++] = ultima;
+        }
+        porEntrega = Arrays.copyOf(porEntrega, entregas);
+
+        long mensajesListas = pantallas.stream().mapToLong(p -> p.mensajesListas.get()).sum();
+        long bytesListas = pantallas.stream().mapToLong(p -> p.bytesListas.get()).sum();
+
+        System.out.println();
+        System.out.println("========== PRUEBA DE CARGA: FANOUT DE LA COLA ==========");
+        System.out.printf("Pantallas: %d | operaciones: %d en %.1f s (%.1f op/s, objetivo %d) | cola inicial: %d%n",
+                pantallas.size(), OPERACIONES, segundosCarga, OPERACIONES / segundosCarga,
+                OPERACIONES_POR_SEGUNDO, COLA_INICIAL);
+        System.out.printf("Eventos medidos: %d | entregas: %d | perdidas: %d%n", eventos, entregas, perdidos);
+        System.out.println("Latencia por entrega (ms):     " + resumen(porEntrega));
+        System.out.println("Latencia hasta la última TV (ms): " + resumen(hastaUltimaPantalla));
+        System.out.printf("Listas /topic/pendientes: %d mensajes, %d KB recibidos%n", mensajesListas, bytesListas / 1024);
+        System.out.printf("Broker: %d broadcasts, %d KB serializados, %d KB entregados, backlog máx. %d, descartados %d, terminadas %d%n",
+                broker.getBroadcasts(), broker.getBytesSerializados() / 1024, broker.getBytesEntregados() / 1024,
+                backlogMax, broker.getMensajesDescartados(), broker.getSesionesTerminadasPorLentitud());
+        System.out.printf("Heap (MB): base %d | con pantallas %d (+%d KB por pantalla) | pico %d%n",
+                heapBase / (1024 * 1024), heapConPantallas / (1024 * 1024),
+                (heapConPantallas - heapBase) / 1024 / Math.max(1, pantallas.size()), heapPico.get() / (1024 * 1024));
+        System.out.println("========================================================");
+
+        pantallas.stream().filter(p -> p.sesion.isConnected()).forEach(p -> p.sesion.disconnect());
+        stompClient.stop();
+
+        assertEquals(0, perdidos, "Hay pantallas que no recibieron todos los eventos");
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private String iniciarSesion(RestClient http) {
+        JsonNode respuesta = http.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("username", ESCRITORIO_USUARIO, "password", ESCRITORIO_PASSWORD))
+                .retrieve().body(JsonNode.class);
+        return respuesta.path("token").asString();
+    }
+
+    private List<String> crearSolicitantes(int cantidad) {
+        String password = passwordEncoder.encode("carga123");
+        List<Usuario> nuevos = new ArrayList<>();
+        List<String> dnis = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            String dni = String.format("9%07d", i);
+            dnis.add(dni);
+            if (!usuarioRepository.existsByUsername(dni)) {
+                nuevos.add(Usuario.builder()
+                        .username(dni)
+                        .password(password)
+                        .nombre("Carga")
+                        .apellidos(dni)
+                        .rol(Rol.TRABAJADOR)
+                        .build());
+            }
+        }
+        usuarioRepository.saveAll(nuevos);
+        return dnis;
+    }
+
+    private JsonNode registrar(RestClient http, String dni) {
+        CategoriaAtencion[] categorias = CategoriaAtencion.values();
+        LugarAtencion[] lugares = LugarAtencion.values();
+        int n = Integer.parseInt(dni.substring(1));
+        return http.post().uri("/api/tickets/registro")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of(
+                        "dniSolicitante", dni,
+                        // Sin QUEJAS_RECLAMOS: finalizarlas exige subcategoría
+                        "categoria", categorias[n % (categorias.length - 1)],
+                        "lugarAtencion", lugares[n % lugares.length]))
+                .retrieve().body(JsonNode.class);
+    }
+
+    private WebSocketStompClient crearClienteStomp() {
+        // Las listas completas superan el buffer por defecto del cliente (8 KB); Tomcat lo reserva por sesión
+        WebSocketContainer contenedor = ContainerProvider.getWebSocketContainer();
+        contenedor.setDefaultMaxTextMessageBufferSize(TAMANO_MAX_MENSAJE);
+        SockJsClient sockJsClient = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient(contenedor))));
+        WebSocketStompClient stompClient = new WebSocketStompClient(sockJsClient);
+        stompClient.setInboundMessageSizeLimit(TAMANO_MAX_MENSAJE);
+        stompClient.setMessageConverter(new JsonCrudo());
+
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setPoolSize(2);
+        heartbeats.setThreadNamePrefix("carga-heartbeat-");
+        heartbeats.initialize();
+        stompClient.setTaskScheduler(heartbeats);
+        return stompClient;
+    }
+
+    private Pantalla conectarPantalla(WebSocketStompClient stompClient) throws Exception {
+        Pantalla pantalla = new Pantalla();
+        StompSession sesion = stompClient
+                .connectAsync("http://localhost:" + puerto + "/ws-tickets", new StompSessionHandlerAdapter() {
+                    @Override
+                    public void handleTransportError(StompSession session, Throwable exception) {
+                        System.out.println("Pantalla desconectada: " + exception.getMessage());
+                    }
+                })
+                .get(10, TimeUnit.SECONDS);
+
+        // El SimpleBroker no emite RECEIPT: las suscripciones ya están activas cuando termina la conexión de todas
+        sesion.subscribe(TOPICO_EVENTOS, new Manejador(payload -> {
+            long ahora = System.nanoTime();
+            JsonNode evento = jsonMapper.readTree(payload);
+            String clave = evento.path("ticket").path("dniSolicitante").asString() + ":" + evento.path("tipo").asString();
+            pantalla.recibidos.putIfAbsent(clave, ahora);
+        }));
+        sesion.subscribe(TOPICO_PENDIENTES, new Manejador(payload -> {
+            pantalla.mensajesListas.incrementAndGet();
+            pantalla.bytesListas.addAndGet(payload.length);
+        }));
+
+        pantalla.sesion = sesion;
+        return pantalla;
+    }
+
+    private static boolean todasRecibieron(List<Pantalla> pantallas, Map<String, Long> enviados) {
+        return pantallas.stream().allMatch(p -> p.recibidos.keySet().containsAll(enviados.keySet()));
+    }
+
+    private static long heapUsado(MemoryMXBean memoria) throws InterruptedException {
+        System.gc();
+        Thread.sleep(200);
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String resumen(long[] latenciasNanos) {
+        if (latenciasNanos.length == 0) {
+            return "sin datos";
+        }
+        long[] ordenadas = latenciasNanos.clone();
+        Arrays.sort(ordenadas);
+        return String.format("p50 %.1f | p99 %.1f | máx %.1f",
+                percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), ordenadas[ordenadas.length - 1] / 1e6);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+
+    private static class Pantalla {
+        final Map<String, Long> recibidos = new ConcurrentHashMap<>();
+        final AtomicInteger mensajesListas = new AtomicInteger();
+        final AtomicLong bytesListas = new AtomicLong();
+        StompSession sesion;
+    }
+
+    // Entrega el JSON sin convertir: el tiempo de recepción se toma antes de parsear
+    private static class JsonCrudo extends AbstractMessageConverter {
+
+        JsonCrudo() {
+            super(MimeTypeUtils.APPLICATION_JSON);
+        }
+
+        @Override
+        protected boolean supports(Class<?> clazz) {
+            return byte[].class == clazz;
+        }
+
+        @Override
+        protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+            return message.getPayload();
+        }
+
+        @Override
+        protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+            return payload;
+        }
+    }
+
+    @FunctionalInterface
+    private interface AlRecibir {
+        void procesar(byte[] payload) throws Exception;
+    }
+
+    private record Manejador(AlRecibir alRecibir) implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            try {
+                alRecibir.procesar((byte[]) payload);
+            } catch (Exception e) {
+                System.out.println("Error procesando frame en la pantalla: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.talsa.rrhh.backend.planes;
+
+import com.talsa.rrhh.backend.enums.CategoriaAtencion;
+import com.talsa.rrhh.backend.enums.EstadoTicket;
+import com.talsa.rrhh.backend.repository.CursorTickets;
+import com.talsa.rrhh.backend.repository.FiltroTickets;
+import com.talsa.rrhh.backend.repository.TicketRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regresión de planes: ejecuta cada consulta de TicketRepository sobre un Postgres embebido con un
+ * histórico grande de tickets, captura el SQL que genera Hibernate (con sus parámetros) y le hace EXPLAIN.
+ * Falla si alguna recorre la tabla tickets completa (Seq Scan).
+ * <p>
+ * Solo corre con el perfil 'planes' (el esquema y los índices salen de las migraciones de Flyway):
+ * <pre>
+ * mvn -Pplanes test -Dplanes.tickets=300000
+ * </pre>
+ * No se revisan: el COUNT sin filtros de los listados paginados (recorre todo por definición) y
+ * findByLugarAtencion (sin uso; un lugar es ~1/6 de la tabla, el Seq Scan es el plan correcto).
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false"
+        })
+@EnabledIfSystemProperty(named = "planes", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PlanesConsultaTests {
+
+    private static final int TICKETS = Integer.getInteger("planes.tickets", 300_000);
+
+    // Datos de la semilla (ver sembrar())
+    private static final String DNI = "40012345";
+    private static final String DNI_PARCIAL = "12345";
+    private static final String ATENDEDOR = "90000007";
+
+    private static final List<EstadoTicket> ESTADOS_ACTIVOS =
+            List.of(EstadoTicket.PENDIENTE, EstadoTicket.EN_ATENCION, EstadoTicket.AUSENTE);
+
+    private static EmbeddedPostgres postgres;
+
+    // SQL que Hibernate envió a la BD durante la consulta en curso
+    private static final List<SentenciaCapturada> capturadas = new ArrayList<>();
+    private static volatile boolean capturando;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo iniciar el Postgres embebido", e);
+            }
+        }
+        return postgres;
+    }
+
+    @AfterAll
+    void detenerBaseDeDatos() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    // Histórico de ~2 años: 100 000 DNIs, 50 atendedores y muy pocos tickets activos (la cola del día)
+    @BeforeAll
+    void sembrar() {
+        jdbcTemplate.update("""
+                INSERT INTO usuarios (username, password, nombre, apellidos, rol)
+                SELECT (90000000 + g)::text, 'x', 'Atendedor', g::text, 'PERSONAL_RRHH' FROM generate_series(1, 50) g
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO usuarios (username, password, nombre, apellidos, rol)
+                SELECT (40000000 + g)::text, 'x', 'Trabajador', g::text, 'TRABAJADOR' FROM generate_series(0, 4999) g
+                """);
+        jdbcTemplate.update("""
+                WITH atendedores AS (
+                    SELECT array_agg(id ORDER BY id) AS ids FROM usuarios WHERE username LIKE '9000%'
+                )
+                INSERT INTO tickets (id, dni_solicitante, lugar_atencion, categoria, estado, observacion,
+                                     usuario_atencion_id, fecha_creacion, fecha_inicio_atencion, fecha_fin_atencion)
+                SELECT 1000000 + g,
+                       (40000000 + g % 100000)::text,
+                       (ARRAY['OFICINA_AVO','OFICINA_SEMILLERO','OFICINA_SAN_VICENTE','CAMPO',
+                              'LLAMADAS_TELEFONICAS','WHATSAPP'])[1 + g % 6],
+                       (ARRAY['ENTREGA_BOLETAS','TRAMITE_VACACIONES','QR_PHOTOCHECKS','JUSTIFICACION_FALTAS',
+                              'INFORMACION','QUEJAS_RECLAMOS'])[1 + (g / 7) % 6],
+                       CASE WHEN g % 2000 = 0 THEN 'PENDIENTE'
+                            WHEN g % 2000 = 1 THEN 'EN_ATENCION'
+                            WHEN g % 2000 = 2 THEN 'AUSENTE'
+                            WHEN g % 10 = 3 THEN 'CANCELADO'
+                            ELSE 'FINALIZADO' END,
+                       'Semilla',
+                       atendedores.ids[1 + g % 50],
+                       now() - g * interval '3 minutes',
+                       now() - g * interval '3 minutes',
+                       now() - g * interval '3 minutes'
+                FROM generate_series(1, ?) g, atendedores
+                """, TICKETS);
+        jdbcTemplate.execute("ANALYZE usuarios");
+        jdbcTemplate.execute("ANALYZE tickets");
+    }
+
+    // ==========================================
+    // CONSULTAS DE TicketRepository
+    // ==========================================
+
+    @Test
+    void consultasOperativas() throws Exception {
+        revisar("existsByDniSolicitanteAndEstado",
+                () -> ticketRepository.existsByDniSolicitanteAndEstado(DNI, EstadoTicket.PENDIENTE));
+        revisar("findByEstado", () -> ticketRepository.findByEstado(EstadoTicket.PENDIENTE));
+        revisar("findByDniSolicitante", () -> ticketRepository.findByDniSolicitante(DNI));
+        revisar("existsByDniSolicitanteAndEstadoIn",
+                () -> ticketRepository.existsByDniSolicitanteAndEstadoIn(DNI, ESTADOS_ACTIVOS));
+        revisar("findByUsuarioAtencion_UsernameAndEstado",
+                () -> ticketRepository.findByUsuarioAtencion_UsernameAndEstado(ATENDEDOR, EstadoTicket.EN_ATENCION));
+        revisar("findByEstadoOrderByCategoriaAscFechaCreacionAsc",
+                () -> ticketRepository.findByEstadoOrderByCategoriaAscFechaCreacionAsc(EstadoTicket.PENDIENTE));
+        revisar("findByEstadoInOrderByCategoriaAscFechaCreacionAsc",
+                () -> ticketRepository.findByEstadoInOrderByCategoriaAscFechaCreacionAsc(ESTADOS_ACTIVOS));
+        revisar("existsByDniSolicitanteAndCategoriaAndFechaCreacionBetween",
+                () -> ticketRepository.existsByDniSolicitanteAndCategoriaAndFechaCreacionBetween(
+                        DNI, CategoriaAtencion.ENTREGA_BOLETAS, hoy(), finDeHoy()));
+        revisar("listarDnisConTicketEnRango",
+                () -> ticketRepository.listarDnisConTicketEnRango(CategoriaAtencion.ENTREGA_BOLETAS, hoy(), finDeHoy()));
+    }
+
+    @Test
+    void consultasDeReportes() throws Exception {
+        revisar("contarVisitasPorDni", () -> ticketRepository.contarVisitasPorDni(DNI));
+        revisar("findByFechaCreacionBetween",
+                () -> ticketRepository.findByFechaCreacionBetween(hoy().minusDays(1), finDeHoy()));
+        revisar("findByUsuarioAtencion_Id", () -> ticketRepository.findByUsuarioAtencion_Id(idDe(ATENDEDOR)));
+        revisar("findByDniSolicitante (paginado)",
+                () -> ticketRepository.findByDniSolicitante(DNI, PageRequest.of(0, 10, porFechaDesc())));
+        revisar("findAll (paginado)", () -> ticketRepository.findAll(PageRequest.of(0, 20, porFechaDesc())));
+    }
+
+    @Test
+    void proyeccionesDeListados() throws Exception {
+        revisar("listarColaDTO", () -> ticketRepository.listarColaDTO(ESTADOS_ACTIVOS));
+        revisar("listarPorEstadoDTO", () -> ticketRepository.listarPorEstadoDTO(EstadoTicket.EN_ATENCION));
+        revisar("listarPorDniDTO", () -> ticketRepository.listarPorDniDTO(DNI, PageRequest.of(0, 10, porFechaDesc())));
+        revisar("listarTodosDTO", () -> ticketRepository.listarTodosDTO(PageRequest.of(0, 20, porFechaDesc())));
+    }
+
+    @Test
+    void buscadorMaestro() throws Exception {
+        revisar("buscarConFiltros (DNI completo)", () -> ticketRepository.buscarConFiltros(
+                new FiltroTickets(DNI, null, null, null, null), PageRequest.of(0, 20)));
+        revisar("buscarConFiltros (DNI parcial)", () -> ticketRepository.buscarConFiltros(
+                new FiltroTickets(DNI_PARCIAL, null, null, null, null), PageRequest.of(0, 20)));
+        revisar("buscarConFiltros (categoría + mes)", () -> ticketRepository.buscarConFiltros(
+                new FiltroTickets(null, null, CategoriaAtencion.QUEJAS_RECLAMOS, hoy().minusMonths(1), finDeHoy()),
+                PageRequest.of(0, 20)));
+        revisar("buscarConFiltros (estado activo)", () -> ticketRepository.buscarConFiltros(
+                new FiltroTickets(null, EstadoTicket.PENDIENTE, null, null, null), PageRequest.of(0, 20)));
+        // Página "200" por cursor: debe ir directo a la posición, igual que la primera
+        CursorTickets profundo = new CursorTickets(hoy().minusDays(20), 1_000_000L + TICKETS / 2);
+        revisar("buscarDesdeCursor (página profunda)", () -> ticketRepository.buscarDesdeCursor(
+                new FiltroTickets(null, null, null, null, null), profundo, 21));
+        revisar("buscarDesdeCursor (DNI, página profunda)", () -> ticketRepository.buscarDesdeCursor(
+                new FiltroTickets(DNI, null, null, null, null), profundo, 11));
+        revisar("recorrerConFiltros (mes)",() -> transactionTemplate.execute(estado -> {
+            try (Stream<?> filas = ticketRepository.recorrerConFiltros(
+                    new FiltroTickets(null, null, null, hoy().minusMonths(1), finDeHoy()))) {
+                return filas.count();
+            }
+        }));
+    }
+
+    // ==========================================
+    // EXPLAIN
+    // ==========================================
+
+    private void revisar(String consulta, Runnable ejecutar) throws SQLException {
+        synchronized (capturadas) {
+            capturadas.clear();
+        }
+        capturando = true;
+        try {
+            ejecutar.run();
+        } finally {
+            capturando = false;
+        }
+
+        List<SentenciaCapturada> sentencias;
+        synchronized (capturadas) {
+            sentencias = List.copyOf(capturadas);
+        }
+        assertTrue(!sentencias.isEmpty(), consulta + ": no se capturó ningún SQL");
+
+        for (SentenciaCapturada sentencia : sentencias) {
+            String sql = sentencia.sql().toLowerCase(Locale.ROOT);
+            if (sql.startsWith("select count(") && !sql.contains(" where ")) {
+                continue; // COUNT de toda la tabla: no tiene otra forma de resolverse
+            }
+            JsonNode plan = explicar(sentencia);
+            List<String> recorridos = new ArrayList<>();
+            buscarSeqScan(plan, recorridos);
+            System.out.println("[plan] " + consulta + " -> " + resumen(plan));
+            assertTrue(recorridos.isEmpty(), consulta + ": Seq Scan sobre " + recorridos
+                    + "\nSQL: " + sentencia.sql() + "\nPlan: " + plan.toPrettyString());
+        }
+    }
+
+    private JsonNode explicar(SentenciaCapturada sentencia) throws SQLException {
+        try (Connection conexion = postgres().getPostgresDatabase().getConnection();
+             PreparedStatement explain = conexion.prepareStatement("EXPLAIN (FORMAT JSON) " + sentencia.sql())) {
+            for (LlamadaSetter setter : sentencia.parametros()) {
+                try {
+                    setter.metodo().invoke(explain, setter.argumentos());
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new SQLException("No se pudo repetir " + setter.metodo().getName(), e);
+                }
+            }
+            try (ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                return jsonMapper.readTree(rs.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private static void buscarSeqScan(JsonNode nodo, List<String> recorridos) {
+        if ("Seq Scan".equals(nodo.path("Node Type").asString())
+                && "tickets".equals(nodo.path("Relation Name").asString())) {
+            recorridos.add(nodo.path("Relation Name").asString());
+        }
+        for (JsonNode hijo : nodo.path("Plans")) {
+            buscarSeqScan(hijo, recorridos);
+        }
+    }
+
+    // "Limit > Index Scan (idx_tickets_fecha_id)" para el log
+    private static String resumen(JsonNode nodo) {
+        String texto = nodo.path("Node Type").asString()
+                + (nodo.has("Index Name") ? " (" + nodo.path("Index Name").asString() + ")" : "")
+                + (nodo.has("Relation Name") && !nodo.has("Index Name") ? " (" + nodo.path("Relation Name").asString() + ")" : "");
+        List<String> hijos = new ArrayList<>();
+        for (JsonNode hijo : nodo.path("Plans")) {
+            hijos.add(resumen(hijo));
+        }
+        return hijos.isEmpty() ? texto : texto + " > " + String.join(" + ", hijos);
+    }
+
+    // ==========================================
+    // CAPTURA DEL SQL (proxy JDBC sobre el DataSource de la aplicación)
+    // ==========================================
+
+    private record LlamadaSetter(Method metodo, Object[] argumentos) {
+    }
+
+    private record SentenciaCapturada(String sql, List<LlamadaSetter> parametros) {
+    }
+
+    @TestConfiguration
+    static class CapturaSql {
+
+        @Bean
+        static BeanPostProcessor capturarSentencias() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nombre) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, (p, metodo, args) -> {
+                        Object resultado = invocar(dataSource, metodo, args);
+                        return resultado instanceof Connection conexion ? conexionCapturada(conexion) : resultado;
+                    });
+                }
+            };
+        }
+
+        private static Connection conexionCapturada(Connection conexion) {
+            return proxy(Connection.class, (p, metodo, args) -> {
+                Object resultado = invocar(conexion, metodo, args);
+                if (capturando && metodo.getName().equals("prepareStatement") && resultado instanceof PreparedStatement ps) {
+                    return sentenciaCapturada(ps, (String) args[0]);
+                }
+                return resultado;
+            });
+        }
+
+        private static PreparedStatement sentenciaCapturada(PreparedStatement ps, String sql) {
+            SentenciaCapturada sentencia = new SentenciaCapturada(sql, new ArrayList<>());
+            synchronized (capturadas) {
+                capturadas.add(sentencia);
+            }
+            return proxy(PreparedStatement.class, (p, metodo, args) -> {
+                if (metodo.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    sentencia.parametros().add(new LlamadaSetter(metodo, args.clone()));
+                }
+                return invocar(ps, metodo, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> tipo, java.lang.reflect.InvocationHandler manejador) {
+            return (T) Proxy.newProxyInstance(PlanesConsultaTests.class.getClassLoader(), new Class<?>[]{tipo}, manejador);
+        }
+
+        private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+            try {
+                return metodo.invoke(destino, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private Long idDe(String username) {
+        return jdbcTemplate.queryForObject("SELECT id FROM usuarios WHERE username = ?", Long.class, username);
+    }
+
+    private static LocalDateTime hoy() {
+        return LocalDate.now().atStartOfDay();
+    }
+
+    private static LocalDateTime finDeHoy() {
+        return LocalDate.now().plusDays(1).atStartOfDay().minusNanos(1000);
+    }
+
+    private static Sort porFechaDesc() {
+        return Sort.by(Sort.Direction.DESC, "fechaCreacion");
+    }
+}
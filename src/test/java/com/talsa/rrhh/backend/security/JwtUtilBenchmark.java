@@ -0,0 +1,90 @@
+package com.talsa.rrhh.backend.security;
+
+import com.talsa.rrhh.backend.entity.Usuario;
+import com.talsa.rrhh.backend.enums.Rol;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por request de la autenticación JWT:
+ * - antes: JwtFilter llamaba extractUsername + validateToken (3 parseos, clave reconstruida en cada uno),
+ * - verificarSinCache: una sola verificación con clave y parser construidos una vez,
+ * - verificarConCache: token ya verificado (SHA-256 + búsqueda en la caché).
+ * <p>
+ * mvn -Pbenchmark test -Dtest=JwtUtilBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    // Misma clave que JwtUtil (copiada para reproducir el camino anterior)
+    private static final String SECRET_KEY = "TalsaRRHH2026_ClaveSuperSecretaParaFirmarTokens_SeguridadTotal";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtUtil = new JwtUtil(10_000);
+        token = jwtUtil.generateToken(Usuario.builder()
+                .id(1L)
+                .username("20202020")
+                .password("x")
+                .nombre("Robinson")
+                .apellidos("Analista")
+                .rol(Rol.PERSONAL_RRHH)
+                .build());
+        jwtUtil.verificar(token); // Deja el token en la caché
+    }
+
+    @Benchmark
+    public boolean antes() {
+        String username = parsearComoAntes(token).getSubject();                  // JwtFilter.extractUsername
+        return username.equals(parsearComoAntes(token).getSubject())            // validateToken: extractUsername
+                && !parsearComoAntes(token).getExpiration().before(new Date()); // validateToken: isTokenExpired
+    }
+
+    @Benchmark
+    public TokenVerificado verificarSinCache() {
+        return jwtUtil.verificarFirma(token);
+    }
+
+    @Benchmark
+    public TokenVerificado verificarConCache() {
+        return jwtUtil.verificar(token);
+    }
+
+    // Réplica del JwtUtil anterior: clave y parser nuevos en cada llamada
+    private static Claims parsearComoAntes(String token) {
+        byte[] keyBytes = Decoders.BASE64.decode(java.util.Base64.getEncoder().encodeToString(SECRET_KEY.getBytes()));
+        SecretKey key = Keys.hmacShaKeyFor(keyBytes);
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void ejecutar() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.talsa.rrhh.backend.service;
+
+import com.talsa.rrhh.backend.dto.TicketResponseDTO;
+import com.talsa.rrhh.backend.enums.EstadoTicket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buscador del dashboard sobre 3 000 tickets activos: índice de sufijos vs recorrer la lista con contains
+ * (lo que se hacía antes). Búsquedas típicas mientras el operador escribe: DNI parcial y parte del nombre.
+ * <p>
+ * mvn -Pbenchmark test -Dtest=IndiceActivosBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndiceActivosBenchmark {
+
+    private static final int ACTIVOS = 3_000;
+
+    private static final String[] NOMBRES = {"José", "María", "Luis", "Rosa", "Carlos", "Ana", "Jorge", "Lucía"};
+    private static final String[] APELLIDOS = {"García", "Quispe", "Flores", "Huamán", "Rojas", "Mendoza", "Torres", "Chávez"};
+
+    @Param({"4000123", "5678", "garcia", "quispe flo"})
+    public String texto;
+
+    private final IndiceActivos indice = new IndiceActivos();
+    private List<TicketResponseDTO> activos;
+    private List<String> nombresNormalizados; // El recorrido no paga la normalización en cada búsqueda
+
+    @Setup
+    public void preparar() {
+        activos = new ArrayList<>(ACTIVOS);
+        for (int i = 0; i < ACTIVOS; i++) {
+            activos.add(TicketResponseDTO.builder()
+                    .id((long) i)
+                    .dniSolicitante(String.format("%08d", 40_001_000 + i * 7))
+                    .nombreSolicitante(NOMBRES[i % NOMBRES.length] + " " + APELLIDOS[i / 8 % APELLIDOS.length]
+                            + " " + APELLIDOS[i / 64 % APELLIDOS.length])
+                    .estado(EstadoTicket.PENDIENTE)
+                    .build());
+        }
+        nombresNormalizados = activos.stream().map(t -> IndiceActivos.normalizar(t.getNombreSolicitante())).toList();
+        indice.reemplazar(activos);
+    }
+
+    @Benchmark
+    public Set<Long> indice() {
+        return indice.buscar(texto);
+    }
+
+    @Benchmark
+    public List<TicketResponseDTO> recorrido() {
+        String buscado = IndiceActivos.normalizar(texto);
+        List<TicketResponseDTO> encontrados = new ArrayList<>();
+        for (int i = 0; i < activos.size(); i++) {
+            if (activos.get(i).getDniSolicitante().contains(buscado) || nombresNormalizados.get(i).contains(buscado)) {
+                encontrados.add(activos.get(i));
+            }
+        }
+        return encontrados;
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void ejecutar() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(IndiceActivosBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
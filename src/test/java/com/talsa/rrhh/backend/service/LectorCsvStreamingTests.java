@@ -0,0 +1,122 @@
+package com.talsa.rrhh.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Casos del parser por bytes de LectorCsvStreaming (sin Spring).
+ */
+class LectorCsvStreamingTests {
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private final LectorCsvStreaming lector = new LectorCsvStreaming();
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void separadorPuntoYComa() throws IOException {
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Boleta enero"),
+                        new FilaImportacion(2, "87654321", "Boleta, febrero")),
+                leer("DNI;OBSERVACION\n12345678;Boleta enero\n87654321;Boleta, febrero\n"));
+    }
+
+    @Test
+    void separadorComa() throws IOException {
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Boleta enero"),
+                        new FilaImportacion(2, "87654321", "Boleta; febrero")),
+                leer("DNI,OBSERVACION\n12345678,Boleta enero\n87654321,Boleta; febrero\n"));
+    }
+
+    @Test
+    void cabeceraDeUnaSolaColumna() throws IOException {
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Boleta enero"),
+                        new FilaImportacion(2, "87654321", "")),
+                leer("DNI\n12345678;Boleta enero\n87654321\n"));
+    }
+
+    @Test
+    void comillasConSeparadorYSaltoDeLinea() throws IOException {
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Boleta; enero\ny febrero"),
+                        new FilaImportacion(2, "87654321", "Sin comillas")),
+                leer("DNI;OBSERVACION\n\"12345678\";\"Boleta; enero\ny febrero\"\n87654321;Sin comillas\n"));
+    }
+
+    @Test
+    void comillasDoblesEscapadas() throws IOException {
+        assertEquals(List.of(new FilaImportacion(1, "12345678", "Dijo \"urgente\"")),
+                leer("DNI;OBSERVACION\n12345678;\"Dijo \"\"urgente\"\"\"\n"));
+    }
+
+    @Test
+    void saltosDeLineaCrLf() throws IOException {
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Boleta enero"),
+                        new FilaImportacion(2, "87654321", "Boleta febrero")),
+                leer("DNI;OBSERVACION\r\n12345678;Boleta enero\r\n87654321;Boleta febrero\r\n"));
+    }
+
+    @Test
+    void lineasVaciasCuentanParaElNumeroDeFila() throws IOException {
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Uno"),
+                        new FilaImportacion(3, "87654321", "Tres")),
+                leer("\nDNI;OBSERVACION\n12345678;Uno\n\n87654321;Tres\n\n"));
+    }
+
+    @Test
+    void ultimaFilaSinSaltoDeLinea() throws IOException {
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Uno"),
+                        new FilaImportacion(2, "87654321", "Dos")),
+                leer("DNI;OBSERVACION\n12345678;Uno\n87654321;Dos"));
+    }
+
+    @Test
+    void utf8ConBom() throws IOException {
+        byte[] contenido = "\uFEFFDNI;OBSERVACION\n12345678;Señor Núñez\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals(List.of(new FilaImportacion(1, "12345678", "Señor Núñez")), leer(contenido));
+    }
+
+    @Test
+    void utf8SinBom() throws IOException {
+        byte[] contenido = "DNI;OBSERVACION\n12345678;Regularización\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals(List.of(new FilaImportacion(1, "12345678", "Regularización")), leer(contenido));
+    }
+
+    @Test
+    void windows1252DeExcel() throws IOException {
+        byte[] contenido = "DNI;OBSERVACIÓN\n12345678;Sin tildes\n87654321;Señor Núñez, regularización\n"
+                .getBytes(WINDOWS_1252);
+        assertEquals(List.of(
+                        new FilaImportacion(1, "12345678", "Sin tildes"),
+                        new FilaImportacion(2, "87654321", "Señor Núñez, regularización")),
+                leer(contenido));
+    }
+
+    private List<FilaImportacion> leer(String contenido) throws IOException {
+        return leer(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<FilaImportacion> leer(byte[] contenido) throws IOException {
+        Path archivo = Files.write(carpeta.resolve("carga.csv"), contenido);
+        List<FilaImportacion> filas = new ArrayList<>();
+        lector.leer(archivo, filas::add);
+        return filas;
+    }
+}
@@ -0,0 +1,102 @@
+package com.talsa.rrhh.backend.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filas por segundo al leer una carga masiva de 100 000 filas: .xlsx (SAX de POI) vs .csv (parser por bytes).
+ * Solo la lectura del archivo: la validación y el guardado son los mismos para ambos formatos.
+ * <p>
+ * mvn -Pbenchmark test -Dtest=LectoresImportacionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(LectoresImportacionBenchmark.FILAS) // Resultado en filas/s
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LectoresImportacionBenchmark {
+
+    static final int FILAS = 100_000;
+
+    private final LectorXlsxStreaming lectorXlsx = new LectorXlsxStreaming();
+    private final LectorCsvStreaming lectorCsv = new LectorCsvStreaming();
+
+    private Path xlsx;
+    private Path csv;
+
+    @Setup
+    public void preparar() throws IOException {
+        xlsx = Files.createTempFile("benchmark-", ".xlsx");
+        csv = Files.createTempFile("benchmark-", ".csv");
+
+        try (SXSSFWorkbook libro = new SXSSFWorkbook(100);
+             OutputStream salida = Files.newOutputStream(xlsx)) {
+            Sheet hoja = libro.createSheet("Carga");
+            Row cabecera = hoja.createRow(0);
+            cabecera.createCell(0).setCellValue("DNI");
+            cabecera.createCell(1).setCellValue("OBSERVACION");
+            for (int i = 1; i <= FILAS; i++) {
+                Row fila = hoja.createRow(i);
+                fila.createCell(0).setCellValue(dni(i));
+                fila.createCell(1).setCellValue(observacion(i));
+            }
+            libro.write(salida);
+        }
+
+        try (BufferedWriter salida = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            salida.write("DNI;OBSERVACION\n");
+            for (int i = 1; i <= FILAS; i++) {
+                salida.write(dni(i) + ";" + observacion(i) + "\n");
+            }
+        }
+    }
+
+    @TearDown
+    public void limpiar() throws IOException {
+        Files.deleteIfExists(xlsx);
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public void leerXlsx(Blackhole bh) throws IOException {
+        lectorXlsx.leer(xlsx, bh::consume);
+    }
+
+    @Benchmark
+    public void leerCsv(Blackhole bh) throws IOException {
+        lectorCsv.leer(csv, bh::consume);
+    }
+
+    private static String dni(int i) {
+        return String.format("%08d", 40_000_000 + i);
+    }
+
+    private static String observacion(int i) {
+        return "Regularización boleta " + (i % 12 + 1) + "/2026";
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void ejecutar() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LectoresImportacionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}